@@ -0,0 +1,106 @@
+package com.nurix.voicecampaign;
+
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.model.UploadFormat;
+import com.nurix.voicecampaign.service.CampaignService;
+import com.nurix.voicecampaign.service.PhoneNumberIngestService;
+import com.nurix.voicecampaign.service.RunningCampaignRegistry;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Starts the application for a JMH trial and seeds it with campaigns.
+ * <p>
+ * {@code database=h2} uses a fresh in-memory database; {@code database=postgresql} uses
+ * the prod profile, i.e. the database from docker-compose on localhost:5432, which is
+ * emptied first. Background dispatch is switched off so that only the measured code
+ * touches the seeded rows.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String database) {
+        List<String> args = new ArrayList<>(List.of(
+                "--campaign.dispatch.event-driven=false",
+                "--campaign.scheduler.sweep-interval-ms=3600000",
+                "--campaign.scheduler.status-poll-interval-ms=3600000",
+                "--campaign.ledger.reconcile-interval-ms=3600000",
+                "--telephony.mock.callback-url=",
+                "--logging.level.root=WARN"));
+        if ("postgresql".equals(database)) {
+            args.add("--spring.profiles.active=prod");
+        } else {
+            args.add("--spring.datasource.url=jdbc:h2:mem:jmh-" + UUID.randomUUID());
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(VoiceCampaignServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        if ("postgresql".equals(database)) {
+            context.getBean(JdbcTemplate.class).execute(
+                    "TRUNCATE phone_numbers, number_uploads, campaign_leases, cluster_members, campaigns CASCADE");
+        }
+        return context;
+    }
+
+    /**
+     * Creates {@code campaigns} running campaigns of {@code size} numbers each, about 70%
+     * completed, 10% failed and the rest pending, as in a campaign well under way.
+     */
+    public static List<Long> seedRunningCampaigns(ConfigurableApplicationContext context, int campaigns, int size) {
+        CampaignService campaignService = context.getBean(CampaignService.class);
+        PhoneNumberIngestService ingestService = context.getBean(PhoneNumberIngestService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        List<Long> campaignIds = new ArrayList<>();
+        for (int i = 0; i < campaigns; i++) {
+            CampaignRequest request = new CampaignRequest();
+            request.setName("Benchmark " + i);
+            request.setConcurrencyLimit(100);
+            request.setRetryCount(3);
+            Long campaignId = campaignService.createCampaign(request).getId();
+            ingestService.ingest(campaignId, null, UploadFormat.CSV, generatedNumbers(size));
+            campaignIds.add(campaignId);
+        }
+        jdbcTemplate.update("UPDATE phone_numbers SET status = 'COMPLETED', retries_attempted = 1, next_attempt_at = NULL WHERE MOD(id, 10) < 7");
+        jdbcTemplate.update("UPDATE phone_numbers SET status = 'FAILED', retries_attempted = 1, failure_reason = 'NO_ANSWER' WHERE MOD(id, 10) = 7");
+        // Straight to RUNNING without the status event, so nothing dispatches in the background; the
+        // registry picks the campaigns up on its refresh
+        jdbcTemplate.update("UPDATE campaigns SET status = 'RUNNING'");
+        context.getBean(RunningCampaignRegistry.class).refresh();
+        jdbcTemplate.execute("ANALYZE");
+        return campaignIds;
+    }
+
+    /**
+     * A CSV body of {@code count} distinct numbers, generated while it is read.
+     */
+    public static InputStream generatedNumbers(int count) {
+        return new InputStream() {
+            private int next;
+            private byte[] line = new byte[0];
+            private int position;
+
+            @Override
+            public int read() {
+                if (position == line.length) {
+                    if (next == count) {
+                        return -1;
+                    }
+                    line = ("+1555" + String.format("%07d", next++) + "\n").getBytes(StandardCharsets.US_ASCII);
+                    position = 0;
+                }
+                return line[position++];
+            }
+        };
+    }
+}
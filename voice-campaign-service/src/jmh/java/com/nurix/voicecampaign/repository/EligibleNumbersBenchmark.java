@@ -0,0 +1,72 @@
+package com.nurix.voicecampaign.repository;
+
+import com.nurix.voicecampaign.BenchmarkContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claim query behind every dispatch round: the next 100 dialable numbers of a campaign.
+ * Each call runs in a rolled back transaction so the row locks are released.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EligibleNumbersBenchmark {
+
+    @Param({"h2"})
+    private String database;
+
+    @Param({"1000", "100000"})
+    private int campaignSize;
+
+    @Param({"1", "10"})
+    private int runningCampaigns;
+
+    private ConfigurableApplicationContext context;
+    private PhoneNumberRepository phoneNumberRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> campaignIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start(database);
+        campaignIds = BenchmarkContext.seedRunningCampaigns(context, runningCampaigns, campaignSize);
+        phoneNumberRepository = context.getBean(PhoneNumberRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findEligibleNumbers() {
+        Long campaignId = campaignIds.get(next++ % campaignIds.size());
+        return transactionTemplate.execute(tx -> {
+            tx.setRollbackOnly();
+            return phoneNumberRepository.findEligibleNumbers(campaignId, LocalDateTime.now(), 100);
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.BenchmarkContext;
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.dto.CampaignResponse;
+import com.nurix.voicecampaign.dto.NumberUploadResponse;
+import com.nurix.voicecampaign.model.UploadFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Loading numbers into a campaign: {@code POST /campaigns} with the numbers inline and
+ * the streaming CSV upload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CampaignIngestBenchmark {
+
+    @Param({"h2"})
+    private String database;
+
+    @Param({"1000", "100000"})
+    private int campaignSize;
+
+    private ConfigurableApplicationContext context;
+    private CampaignService campaignService;
+    private PhoneNumberIngestService ingestService;
+    private List<String> numbers;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start(database);
+        campaignService = context.getBean(CampaignService.class);
+        ingestService = context.getBean(PhoneNumberIngestService.class);
+        numbers = IntStream.range(0, campaignSize)
+                .mapToObj(i -> "+1555" + String.format("%07d", i))
+                .collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CampaignResponse createCampaign() {
+        CampaignRequest request = new CampaignRequest();
+        request.setName("Inline");
+        request.setPhoneNumbers(numbers);
+        return campaignService.createCampaign(request);
+    }
+
+    @Benchmark
+    public NumberUploadResponse streamingUpload() {
+        CampaignRequest request = new CampaignRequest();
+        request.setName("Streamed");
+        Long campaignId = campaignService.createCampaign(request).getId();
+        return ingestService.ingest(campaignId, null, UploadFormat.CSV, BenchmarkContext.generatedNumbers(campaignSize));
+    }
+}
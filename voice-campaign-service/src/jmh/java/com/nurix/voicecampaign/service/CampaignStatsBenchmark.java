@@ -0,0 +1,74 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.BenchmarkContext;
+import com.nurix.voicecampaign.dto.CampaignResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /campaigns/{id}}: the response with its statistics served from the cache,
+ * and with the cache entry reloaded by the grouped count query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CampaignStatsBenchmark {
+
+    @Param({"h2"})
+    private String database;
+
+    @Param({"1000", "100000"})
+    private int campaignSize;
+
+    @Param({"1", "10"})
+    private int runningCampaigns;
+
+    private ConfigurableApplicationContext context;
+    private CampaignService campaignService;
+    private CampaignStatsCache campaignStatsCache;
+    private List<Long> campaignIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start(database);
+        campaignIds = BenchmarkContext.seedRunningCampaigns(context, runningCampaigns, campaignSize);
+        campaignService = context.getBean(CampaignService.class);
+        campaignStatsCache = context.getBean(CampaignStatsCache.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CampaignResponse cachedStats() {
+        return campaignService.getCampaign(campaignIds.get(next++ % campaignIds.size()));
+    }
+
+    @Benchmark
+    public CampaignResponse reloadedStats() {
+        Long campaignId = campaignIds.get(next++ % campaignIds.size());
+        campaignStatsCache.evict(campaignId);
+        return campaignService.getCampaign(campaignId);
+    }
+}
@@ -0,0 +1,72 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.BenchmarkContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One dispatch round ({@link CampaignDispatcher#reserve}): business hours, slot
+ * acquisition, the claim query and reserving up to 100 numbers. The transaction is
+ * rolled back, so every round sees the same rows; provider requests are not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchTickBenchmark {
+
+    @Param({"h2"})
+    private String database;
+
+    @Param({"1000", "100000"})
+    private int campaignSize;
+
+    @Param({"1", "10"})
+    private int runningCampaigns;
+
+    private ConfigurableApplicationContext context;
+    private CampaignDispatcher campaignDispatcher;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> campaignIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start(database);
+        campaignIds = BenchmarkContext.seedRunningCampaigns(context, runningCampaigns, campaignSize);
+        campaignDispatcher = context.getBean(CampaignDispatcher.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ReservedCall> dispatchTick() {
+        Long campaignId = campaignIds.get(next++ % campaignIds.size());
+        return transactionTemplate.execute(tx -> {
+            tx.setRollbackOnly();
+            return campaignDispatcher.reserve(campaignId);
+        });
+    }
+}
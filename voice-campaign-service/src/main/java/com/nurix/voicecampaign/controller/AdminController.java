@@ -0,0 +1,42 @@
+package com.nurix.voicecampaign.controller;
+
+import com.nurix.voicecampaign.dto.LedgerDriftResponse;
+import com.nurix.voicecampaign.service.CampaignArchiver;
+import com.nurix.voicecampaign.service.ConcurrencyLedger;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final ConcurrencyLedger concurrencyLedger;
+    private final CampaignArchiver campaignArchiver;
+
+    @GetMapping("/concurrency-ledger")
+    public ResponseEntity<List<LedgerDriftResponse>> getConcurrencyLedger() {
+        return ResponseEntity.ok(concurrencyLedger.compareWithDatabase());
+    }
+
+    // Corrects any drift right away instead of waiting for the scheduled reconcile to confirm it
+    @PostMapping("/concurrency-ledger/reconcile")
+    public ResponseEntity<List<LedgerDriftResponse>> reconcileConcurrencyLedger() {
+        return ResponseEntity.ok(concurrencyLedger.reconcile(true));
+    }
+
+    // Archives a completed campaign now instead of after campaign.archive.after-ms
+    @PostMapping("/campaigns/{id}/archive")
+    public ResponseEntity<Map<String, Long>> archiveCampaign(@PathVariable Long id) {
+        long archived = campaignArchiver.archive(id);
+        if (archived < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(Map.of("archived", archived));
+    }
+}
@@ -1,7 +1,10 @@
 package com.nurix.voicecampaign.controller;
 
+import com.nurix.voicecampaign.dto.CallEventRequest;
 import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.service.CallEventService;
 import com.nurix.voicecampaign.service.CallService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +17,7 @@ import java.util.Map;
 public class CallController {
 
     private final CallService callService;
+    private final CallEventService callEventService;
 
     @PostMapping
     public ResponseEntity<Map<String, String>> triggerCall(@RequestBody Map<String, String> payload) {
@@ -33,4 +37,14 @@ public class CallController {
         }
         return ResponseEntity.ok(Map.of("call_id", id, "status", status));
     }
+
+    // Status callback from the telephony provider; applied asynchronously in batches
+    @PostMapping("/{id}/events")
+    public ResponseEntity<Void> receiveCallEvent(@PathVariable String id, @Valid @RequestBody CallEventRequest request) {
+        if (request.getStatus() == CallStatus.PENDING) {
+            return ResponseEntity.badRequest().build();
+        }
+        callEventService.record(id, request.getStatus(), request.getFailureReason(), request.getOccurredAt());
+        return ResponseEntity.accepted().build();
+    }
 }
@@ -1,12 +1,30 @@
 package com.nurix.voicecampaign.controller;
 
+import com.nurix.voicecampaign.dto.CallAttemptResponse;
+import com.nurix.voicecampaign.dto.CallRecordPage;
 import com.nurix.voicecampaign.dto.CampaignRequest;
 import com.nurix.voicecampaign.dto.CampaignResponse;
+import com.nurix.voicecampaign.dto.NumberUploadResponse;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.ExportFormat;
+import com.nurix.voicecampaign.model.UploadFormat;
+import com.nurix.voicecampaign.service.CallAttemptLog;
+import com.nurix.voicecampaign.service.CallRecordService;
+import com.nurix.voicecampaign.service.CampaignProgressBroadcaster;
 import com.nurix.voicecampaign.service.CampaignService;
+import com.nurix.voicecampaign.service.PhoneNumberIngestService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/campaigns")
@@ -14,12 +32,27 @@ import org.springframework.web.bind.annotation.*;
 public class CampaignController {
 
     private final CampaignService campaignService;
+    private final PhoneNumberIngestService phoneNumberIngestService;
+    private final CallRecordService callRecordService;
+    private final CampaignProgressBroadcaster campaignProgressBroadcaster;
+    private final CallAttemptLog callAttemptLog;
 
     @PostMapping
     public ResponseEntity<CampaignResponse> createCampaign(@Valid @RequestBody CampaignRequest request) {
         return ResponseEntity.ok(campaignService.createCampaign(request));
     }
 
+    // Progress of several campaigns (all when no ids are given) as Server-Sent Events
+    @GetMapping(value = "/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProgress(@RequestParam(required = false) Set<Long> ids) {
+        return campaignProgressBroadcaster.subscribe(ids != null ? ids : Set.of());
+    }
+
+    @GetMapping(value = "/{id}/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCampaignProgress(@PathVariable Long id) {
+        return campaignProgressBroadcaster.subscribe(Set.of(id));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CampaignResponse> getCampaign(@PathVariable Long id) {
         return ResponseEntity.ok(campaignService.getCampaign(id));
@@ -34,4 +67,50 @@ public class CampaignController {
     public ResponseEntity<CampaignResponse> pauseCampaign(@PathVariable Long id) {
         return ResponseEntity.ok(campaignService.pauseCampaign(id));
     }
+
+    // Streams a CSV or NDJSON body of numbers into the campaign; pass uploadId to resume
+    @PostMapping(value = "/{id}/numbers", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<NumberUploadResponse> uploadNumbers(@PathVariable Long id,
+                                                              @RequestParam(required = false) Long uploadId,
+                                                              @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                              InputStream body) {
+        UploadFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? UploadFormat.CSV
+                : UploadFormat.NDJSON;
+        return ResponseEntity.ok(phoneNumberIngestService.ingest(id, uploadId, format, body));
+    }
+
+    @GetMapping("/{id}/uploads/{uploadId}")
+    public ResponseEntity<NumberUploadResponse> getUpload(@PathVariable Long id, @PathVariable Long uploadId) {
+        return ResponseEntity.ok(phoneNumberIngestService.getUpload(id, uploadId));
+    }
+
+    // Keyset pagination: pass the previous page's nextCursor as "after"
+    @GetMapping("/{id}/calls")
+    public ResponseEntity<CallRecordPage> listCalls(@PathVariable Long id,
+                                                    @RequestParam(required = false) Set<CallStatus> status,
+                                                    @RequestParam(required = false) Long after,
+                                                    @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(callRecordService.listCalls(id, status, after, limit));
+    }
+
+    // Every finished attempt of one number, oldest first
+    @GetMapping("/{id}/calls/{phoneNumberId}/attempts")
+    public ResponseEntity<List<CallAttemptResponse>> listAttempts(@PathVariable Long id, @PathVariable Long phoneNumberId) {
+        callRecordService.requireCampaign(id);
+        return ResponseEntity.ok(callAttemptLog.findAttempts(id, phoneNumberId));
+    }
+
+    // Streams every matching call as CSV or NDJSON
+    @GetMapping("/{id}/calls/export")
+    public ResponseEntity<StreamingResponseBody> exportCalls(@PathVariable Long id,
+                                                             @RequestParam(required = false) Set<CallStatus> status,
+                                                             @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        callRecordService.requireCampaign(id);
+        String extension = format == ExportFormat.CSV ? "csv" : "ndjson";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format == ExportFormat.CSV ? "text/csv" : "application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"campaign-" + id + "-calls." + extension + "\"")
+                .body(out -> callRecordService.export(id, status, format, out));
+    }
 }
@@ -0,0 +1,34 @@
+package com.nurix.voicecampaign.controller;
+
+import com.nurix.voicecampaign.dto.DoNotCallRequest;
+import com.nurix.voicecampaign.service.DoNotCallList;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/do-not-call")
+@RequiredArgsConstructor
+public class DoNotCallController {
+
+    private final DoNotCallList doNotCallList;
+
+    // Listed numbers are skipped by later campaign creations and uploads
+    @PostMapping
+    public ResponseEntity<Map<String, Integer>> addNumbers(@Valid @RequestBody DoNotCallRequest request) {
+        return ResponseEntity.ok(Map.of("added", doNotCallList.add(request.getNumbers())));
+    }
+
+    @GetMapping("/{number}")
+    public ResponseEntity<Map<String, Object>> getNumber(@PathVariable String number) {
+        return ResponseEntity.ok(Map.of("number", number, "listed", doNotCallList.contains(number)));
+    }
+
+    @DeleteMapping("/{number}")
+    public ResponseEntity<Void> removeNumber(@PathVariable String number) {
+        return doNotCallList.remove(number) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.nurix.voicecampaign.dto;
+
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.FailureReason;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class CallAttemptResponse {
+    private int attempt;
+    private String externalCallId;
+    private CallStatus status;
+    private FailureReason failureReason;
+    private LocalDateTime startedAt;
+    private LocalDateTime endedAt;
+    private Long durationMs;
+}
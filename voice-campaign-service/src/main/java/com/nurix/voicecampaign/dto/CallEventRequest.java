@@ -0,0 +1,21 @@
+package com.nurix.voicecampaign.dto;
+
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.FailureReason;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class CallEventRequest {
+
+    @NotNull(message = "Status is required")
+    private CallStatus status;
+
+    // Why a FAILED call failed; decides how it is retried
+    private FailureReason failureReason;
+
+    // When the provider observed the change; defaults to the time the event is received
+    private Instant occurredAt;
+}
@@ -0,0 +1,14 @@
+package com.nurix.voicecampaign.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CallRecordPage {
+    private List<CallRecordResponse> calls;
+    // Pass as "after" to get the next page; null on the last page
+    private Long nextCursor;
+}
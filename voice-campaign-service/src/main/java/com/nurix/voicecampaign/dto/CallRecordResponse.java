@@ -0,0 +1,23 @@
+package com.nurix.voicecampaign.dto;
+
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.FailureReason;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class CallRecordResponse {
+    private Long id;
+    private String number;
+    private CallStatus status;
+    private int retriesAttempted;
+    private FailureReason failureReason;
+    private String externalCallId;
+    private LocalDateTime lastAttemptTime;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,32 @@
+package com.nurix.voicecampaign.dto;
+
+import com.nurix.voicecampaign.model.CampaignStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * One message of a campaign progress stream: how the campaign's call counts changed since
+ * the previous message, and the counts after the change so a client can resync.
+ */
+@Data
+@Builder
+public class CampaignProgressUpdate {
+    private Long campaignId;
+    // Only set when the campaign changed status, and in the first message of a stream
+    private CampaignStatus status;
+
+    private long pendingDelta;
+    private long inProgressDelta;
+    private long completedDelta;
+    private long failedDelta;
+
+    private long totalCalls;
+    private long completedCalls;
+    private long failedCalls;
+    private long pendingCalls;
+    private long inProgressCalls;
+
+    private Instant at;
+}
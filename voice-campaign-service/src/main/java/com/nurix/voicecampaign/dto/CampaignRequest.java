@@ -1,11 +1,16 @@
 package com.nurix.voicecampaign.dto;
 
+import com.nurix.voicecampaign.model.BusinessHours;
+import com.nurix.voicecampaign.model.RetryBackoff;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
+import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Set;
 
 @Data
 public class CampaignRequest {
@@ -13,13 +18,19 @@ public class CampaignRequest {
     @NotEmpty(message = "Name is required")
     private String name;
 
-    @NotEmpty(message = "At least one phone number is required")
+    // Optional; large lists should be streamed to POST /campaigns/{id}/numbers instead
     private List<String> phoneNumbers;
 
     private LocalTime startTime;
     private LocalTime endTime;
     private String timezone;
+    private List<@Valid BusinessHours> businessHours;
+    private Set<LocalDate> holidays;
+    private String callerId;
 
     private Integer concurrencyLimit;
     private Integer retryCount;
+    private RetryBackoff retryBackoff;
+    private Long retryDelayMs;
+    private Long retryMaxDelayMs;
 }
@@ -1,11 +1,16 @@
 package com.nurix.voicecampaign.dto;
 
+import com.nurix.voicecampaign.model.BusinessHours;
+import com.nurix.voicecampaign.model.RetryBackoff;
 import com.nurix.voicecampaign.model.CampaignStatus;
 import lombok.Builder;
 import lombok.Data;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
 
 @Data
 @Builder
@@ -16,9 +21,23 @@ public class CampaignResponse {
     private LocalTime startTime;
     private LocalTime endTime;
     private String timezone;
+    private List<BusinessHours> businessHours;
+    private Set<LocalDate> holidays;
+    private String callerId;
     private Integer concurrencyLimit;
+    // Below concurrencyLimit while adaptive pacing holds the campaign back
+    private Integer effectiveConcurrencyLimit;
     private Integer retryCount;
+    private RetryBackoff retryBackoff;
+    private Long retryDelayMs;
+    private Long retryMaxDelayMs;
     private LocalDateTime createdAt;
+    private LocalDateTime archivedAt;
+
+    // Numbers of the create request that were left out, as counted for uploads; null outside POST /campaigns
+    private Long recordsRejected;
+    private Long numbersDuplicate;
+    private Long numbersSuppressed;
     
     private long totalCalls;
     private long completedCalls;
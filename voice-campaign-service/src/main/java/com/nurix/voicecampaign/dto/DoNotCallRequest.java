@@ -0,0 +1,12 @@
+package com.nurix.voicecampaign.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DoNotCallRequest {
+    @NotEmpty
+    private List<String> numbers;
+}
@@ -0,0 +1,12 @@
+package com.nurix.voicecampaign.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class LedgerDriftResponse {
+    private Long campaignId;
+    private int ledgerInFlight;
+    private int databaseInFlight;
+}
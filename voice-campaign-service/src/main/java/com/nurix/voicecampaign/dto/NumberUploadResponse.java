@@ -0,0 +1,25 @@
+package com.nurix.voicecampaign.dto;
+
+import com.nurix.voicecampaign.model.UploadFormat;
+import com.nurix.voicecampaign.model.UploadStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class NumberUploadResponse {
+    private Long uploadId;
+    private Long campaignId;
+    private UploadFormat format;
+    private UploadStatus status;
+    private long recordsProcessed;
+    private long numbersInserted;
+    private long recordsRejected;
+    private long numbersDuplicate;
+    private long numbersSuppressed;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.nurix.voicecampaign.event;
+
+import com.nurix.voicecampaign.model.CallStatus;
+
+/**
+ * Published whenever a {@code PhoneNumber} moves from one {@link CallStatus} to another.
+ * Listeners that depend on the new state being visible should use
+ * {@code @TransactionalEventListener} so they run after the change is committed.
+ * {@code retryScheduled} is set when a failed call was given a retry.
+ */
+public record CallStatusChangedEvent(Long campaignId, Long phoneNumberId, CallStatus previousStatus, CallStatus newStatus,
+                                     boolean retryScheduled) {
+
+    public CallStatusChangedEvent(Long campaignId, Long phoneNumberId, CallStatus previousStatus, CallStatus newStatus) {
+        this(campaignId, phoneNumberId, previousStatus, newStatus, false);
+    }
+}
@@ -0,0 +1,9 @@
+package com.nurix.voicecampaign.event;
+
+import com.nurix.voicecampaign.model.CampaignStatus;
+
+/**
+ * Published when a campaign is started, paused or completed.
+ */
+public record CampaignStatusChangedEvent(Long campaignId, CampaignStatus previousStatus, CampaignStatus newStatus) {
+}
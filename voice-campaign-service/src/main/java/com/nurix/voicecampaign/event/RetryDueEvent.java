@@ -0,0 +1,7 @@
+package com.nurix.voicecampaign.event;
+
+/**
+ * Published when a failed number of the campaign becomes due for its retry.
+ */
+public record RetryDueEvent(Long campaignId) {
+}
@@ -0,0 +1,37 @@
+package com.nurix.voicecampaign.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * A calling window on one day of the week. A window whose end is not after its start
+ * runs past midnight into the next day (an equal start and end is a full day).
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusinessHours {
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DayOfWeek dayOfWeek;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalTime endTime;
+}
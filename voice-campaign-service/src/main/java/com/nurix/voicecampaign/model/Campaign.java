@@ -8,9 +8,13 @@ import lombok.Builder;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
 @Data
@@ -35,12 +39,41 @@ public class Campaign {
     private LocalTime endTime;
     private String timezone;
 
+    // Per-weekday windows; when empty, startTime/endTime apply every day
+    @ElementCollection
+    @CollectionTable(name = "campaign_business_hours", joinColumns = @JoinColumn(name = "campaign_id"))
+    @Builder.Default
+    private List<BusinessHours> businessHours = new ArrayList<>();
+
+    // No window opens on these dates (in the campaign's timezone)
+    @ElementCollection
+    @CollectionTable(name = "campaign_holidays", joinColumns = @JoinColumn(name = "campaign_id"))
+    @Column(name = "holiday")
+    @Builder.Default
+    private Set<LocalDate> holidays = new HashSet<>();
+
+    // Outbound caller ID; calls sharing one are rate limited together
+    private String callerId;
+
     private Integer concurrencyLimit;
     private Integer retryCount;
 
+    // Delay before a failed number is retried; null fields use the campaign.retry.* defaults
+    @Enumerated(EnumType.STRING)
+    private RetryBackoff retryBackoff;
+    private Long retryDelayMs;
+    private Long retryMaxDelayMs;
+
+    // Set once the archiver starts moving the campaign's numbers out; it takes no more numbers after that
+    private LocalDateTime archivedAt;
+
     @OneToMany(mappedBy = "campaign", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<PhoneNumber> phoneNumbers;
 
+    // Optimistic lock; also tells RunningCampaignRegistry on other instances that the campaign changed
+    @Version
+    private Long version;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -0,0 +1,33 @@
+package com.nurix.voicecampaign.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Call counts of a campaign whose numbers were moved out of {@code phone_numbers} by the
+ * archiver, so the campaign's stats can still be served.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "campaign_archives")
+public class CampaignArchive {
+
+    @Id
+    private Long campaignId;
+
+    private long pendingCalls;
+    private long inProgressCalls;
+    private long completedCalls;
+    private long failedCalls;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,6 @@
+package com.nurix.voicecampaign.model;
+
+public enum ExportFormat {
+    CSV,
+    NDJSON
+}
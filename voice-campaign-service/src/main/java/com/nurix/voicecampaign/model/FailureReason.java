@@ -0,0 +1,21 @@
+package com.nurix.voicecampaign.model;
+
+/**
+ * Why a call attempt failed; decides whether and when it is retried (see RetryScheduler).
+ */
+public enum FailureReason {
+    // Retried with the campaign's backoff
+    NO_ANSWER,
+    // Retried after the campaign's base delay, without growing it: the callee is around
+    BUSY,
+    // Never retried
+    INVALID_NUMBER,
+    // The provider refused or failed the request; retried with the campaign's backoff
+    PROVIDER_ERROR,
+    // The reserving instance went away before placing the call; retried immediately
+    CLAIM_EXPIRED,
+    // The provider no longer knows the call; retried with the campaign's backoff
+    CALL_LOST,
+    // Reported without a reason, e.g. by the status poll; retried with the campaign's backoff
+    UNKNOWN
+}
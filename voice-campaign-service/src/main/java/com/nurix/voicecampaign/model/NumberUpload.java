@@ -0,0 +1,56 @@
+package com.nurix.voicecampaign.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tracks a streamed phone number upload so that progress can be reported and an
+ * interrupted upload can be resumed from the last committed chunk.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "number_uploads")
+public class NumberUpload {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long campaignId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadStatus status;
+
+    // Lines of the body consumed and committed so far; a resumed upload skips this many lines
+    private long recordsProcessed;
+    private long numbersInserted;
+    private long recordsRejected;
+    // Valid numbers skipped because the campaign already has them, or because they are on the do-not-call list
+    private long numbersDuplicate;
+    private long numbersSuppressed;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -15,11 +15,19 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "phone_numbers")
+// Indexes are created by the Flyway migrations in db/migration; listed here for reference
+@Table(name = "phone_numbers", indexes = {
+        @Index(name = "idx_phone_numbers_campaign_status", columnList = "campaign_id, status"),
+        @Index(name = "idx_phone_numbers_campaign_id", columnList = "campaign_id, id"),
+        @Index(name = "idx_phone_numbers_lease_expires_at", columnList = "lease_expires_at"),
+        @Index(name = "idx_phone_numbers_next_attempt", columnList = "campaign_id, next_attempt_at")
+})
 public class PhoneNumber {
 
+    // Sequence (not IDENTITY) ids so Hibernate can batch inserts during bulk ingestion
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "phone_numbers_seq")
+    @SequenceGenerator(name = "phone_numbers_seq", sequenceName = "phone_numbers_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -33,13 +41,31 @@ public class PhoneNumber {
     @JoinColumn(name = "campaign_id", nullable = false)
     private Campaign campaign;
 
-    private String externalCallId;
+    // The provider's call id and the attempt's timing live in in_flight_calls and call_attempts
     private int retriesAttempted;
-    private LocalDateTime lastAttemptTime;
+
+    // Set by the instance that reserved the number for dispatch, cleared once the call is placed
+    private String leaseOwner;
+    private LocalDateTime leaseExpiresAt;
+
+    // When the number may next be dialled; null while in progress, completed or out of retries
+    private LocalDateTime nextAttemptAt;
+
+    // Why the last attempt failed
+    @Enumerated(EnumType.STRING)
+    private FailureReason failureReason;
 
     @CreationTimestamp
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
+
+    @PrePersist
+    void initNextAttemptAt() {
+        // New numbers are dialable straight away
+        if (nextAttemptAt == null && status == CallStatus.PENDING) {
+            nextAttemptAt = LocalDateTime.now();
+        }
+    }
 }
@@ -0,0 +1,8 @@
+package com.nurix.voicecampaign.model;
+
+public enum RetryBackoff {
+    // Base delay doubled per attempt up to the maximum, with jitter
+    EXPONENTIAL,
+    // Base delay for every attempt
+    FIXED
+}
@@ -0,0 +1,6 @@
+package com.nurix.voicecampaign.model;
+
+public enum UploadFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,7 @@
+package com.nurix.voicecampaign.model;
+
+public enum UploadStatus {
+    IN_PROGRESS,
+    COMPLETED,
+    FAILED
+}
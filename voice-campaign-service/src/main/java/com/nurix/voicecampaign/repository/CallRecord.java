@@ -0,0 +1,31 @@
+package com.nurix.voicecampaign.repository;
+
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.FailureReason;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a phone number's call outcome as listed by {@code GET /campaigns/{id}/calls}.
+ */
+public interface CallRecord {
+    Long getId();
+
+    String getNumber();
+
+    CallStatus getStatus();
+
+    int getRetriesAttempted();
+
+    FailureReason getFailureReason();
+
+    String getExternalCallId();
+
+    LocalDateTime getLastAttemptTime();
+
+    LocalDateTime getNextAttemptAt();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
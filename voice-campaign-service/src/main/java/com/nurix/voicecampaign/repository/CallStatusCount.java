@@ -0,0 +1,12 @@
+package com.nurix.voicecampaign.repository;
+
+import com.nurix.voicecampaign.model.CallStatus;
+
+/**
+ * Projection for per-status counts of a campaign's phone numbers.
+ */
+public interface CallStatusCount {
+    CallStatus getStatus();
+
+    long getCount();
+}
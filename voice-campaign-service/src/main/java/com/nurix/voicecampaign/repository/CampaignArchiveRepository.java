@@ -0,0 +1,9 @@
+package com.nurix.voicecampaign.repository;
+
+import com.nurix.voicecampaign.model.CampaignArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CampaignArchiveRepository extends JpaRepository<CampaignArchive, Long> {
+}
@@ -0,0 +1,10 @@
+package com.nurix.voicecampaign.repository;
+
+/**
+ * Projection for per-campaign counts returned by grouped queries.
+ */
+public interface CampaignCallCount {
+    Long getCampaignId();
+
+    long getCount();
+}
@@ -2,12 +2,22 @@ package com.nurix.voicecampaign.repository;
 
 import com.nurix.voicecampaign.model.Campaign;
 import com.nurix.voicecampaign.model.CampaignStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CampaignRepository extends JpaRepository<Campaign, Long> {
     List<Campaign> findByStatus(CampaignStatus status);
+
+    // Serializes dispatch of a campaign across instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Campaign c WHERE c.id = :id")
+    Optional<Campaign> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,23 @@
+package com.nurix.voicecampaign.repository;
+
+import com.nurix.voicecampaign.model.CallStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a phone number claimed for dispatch, with only the columns the
+ * dispatcher needs; the row itself is reserved with a bulk update.
+ */
+public interface DispatchCandidate {
+    Long getId();
+
+    String getNumber();
+
+    CallStatus getStatus();
+
+    int getRetriesAttempted();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getNextAttemptAt();
+}
@@ -0,0 +1,14 @@
+package com.nurix.voicecampaign.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a placed call for polling its status at the provider.
+ */
+public interface InFlightCall {
+    Long getId();
+
+    String getExternalCallId();
+
+    LocalDateTime getStartedAt();
+}
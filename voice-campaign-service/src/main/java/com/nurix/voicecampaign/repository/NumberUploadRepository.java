@@ -0,0 +1,12 @@
+package com.nurix.voicecampaign.repository;
+
+import com.nurix.voicecampaign.model.NumberUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface NumberUploadRepository extends JpaRepository<NumberUpload, Long> {
+    Optional<NumberUpload> findByIdAndCampaignId(Long id, Long campaignId);
+}
@@ -4,10 +4,13 @@ import com.nurix.voicecampaign.model.CallStatus;
 import com.nurix.voicecampaign.model.PhoneNumber;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,8 +19,51 @@ public interface PhoneNumberRepository extends JpaRepository<PhoneNumber, Long>
     @Query("SELECT p FROM PhoneNumber p WHERE p.campaign.id = :campaignId AND p.status = :status")
     List<PhoneNumber> findByCampaignIdAndStatus(@Param("campaignId") Long campaignId, @Param("status") CallStatus status, Pageable pageable);
 
+    // Placed calls that have been in progress since before the given time, oldest first. Read from
+    // in_flight_calls, which holds the provider's call id of every placed call until its outcome is stored.
+    @Query(value = "SELECT phone_number_id AS id, external_call_id AS externalCallId, started_at AS startedAt " +
+            "FROM in_flight_calls WHERE campaign_id = :campaignId AND started_at < :before ORDER BY started_at LIMIT :limit",
+            nativeQuery = true)
+    List<InFlightCall> findInProgressStartedBefore(@Param("campaignId") Long campaignId, @Param("before") LocalDateTime before,
+                                                   @Param("limit") int limit);
+
     long countByCampaignIdAndStatus(Long campaignId, CallStatus status);
 
-    @Query("SELECT p FROM PhoneNumber p WHERE p.campaign.id = :campaignId AND (p.status = 'PENDING' OR (p.status = 'FAILED' AND p.retriesAttempted < :maxRetries)) ORDER BY p.lastAttemptTime ASC NULLS FIRST")
-    List<PhoneNumber> findEligibleNumbers(@Param("campaignId") Long campaignId, @Param("maxRetries") int maxRetries, Pageable pageable);
+    // Keyset page of a campaign's numbers: a seek on (campaign_id, id) past the last id of the previous page,
+    // so every page costs the same however deep it is. Pass all statuses for an unfiltered listing. The call id
+    // and start of the number's latest attempt come from in_flight_calls while it runs, from call_attempts after.
+    @Query(value = "SELECT p.id AS id, p.number AS number, p.status AS status, p.retries_attempted AS retriesAttempted, " +
+            "p.failure_reason AS failureReason, COALESCE(f.external_call_id, a.external_call_id) AS externalCallId, " +
+            "COALESCE(f.started_at, a.started_at) AS lastAttemptTime, p.next_attempt_at AS nextAttemptAt, " +
+            "p.created_at AS createdAt, p.updated_at AS updatedAt FROM phone_numbers p " +
+            "LEFT JOIN in_flight_calls f ON f.phone_number_id = p.id AND f.attempt = p.retries_attempted " +
+            "LEFT JOIN call_attempts a ON a.campaign_id = p.campaign_id AND a.phone_number_id = p.id " +
+            "AND a.attempt = p.retries_attempted " +
+            "WHERE p.campaign_id = :campaignId AND p.id > :afterId AND p.status IN (:statuses) ORDER BY p.id LIMIT :limit",
+            nativeQuery = true)
+    List<CallRecord> findCallRecords(@Param("campaignId") Long campaignId, @Param("afterId") Long afterId,
+                                     @Param("statuses") Collection<String> statuses, @Param("limit") int limit);
+
+    @Query("SELECT p.status AS status, COUNT(p) AS count FROM PhoneNumber p WHERE p.campaign.id = :campaignId GROUP BY p.status")
+    List<CallStatusCount> countByCampaignIdGroupByStatus(@Param("campaignId") Long campaignId);
+
+    @Query("SELECT p.campaign.id AS campaignId, COUNT(p) AS count FROM PhoneNumber p WHERE p.status = :status GROUP BY p.campaign.id")
+    List<CampaignCallCount> countByStatusGroupByCampaign(@Param("status") CallStatus status);
+
+    // Claims the next numbers to dial: a range scan over (campaign_id, next_attempt_at), which is only set on
+    // pending numbers and on failed ones whose retry is due (see RetryScheduler). Rows locked by a concurrent
+    // dispatch (e.g. on another instance) are skipped rather than waited for, so two instances never reserve
+    // the same number. Native because Hibernate's H2 dialect doesn't render SKIP LOCKED.
+    @Query(value = "SELECT id, number, status, retries_attempted AS retriesAttempted, created_at AS createdAt, " +
+            "next_attempt_at AS nextAttemptAt FROM phone_numbers WHERE campaign_id = :campaignId AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<DispatchCandidate> findEligibleNumbers(@Param("campaignId") Long campaignId, @Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Reserves claimed numbers in one statement instead of dirty checking an entity per row
+    @Modifying
+    @Query("UPDATE PhoneNumber p SET p.status = 'IN_PROGRESS', p.updatedAt = :now, " +
+            "p.leaseOwner = :leaseOwner, p.leaseExpiresAt = :leaseExpiresAt, p.nextAttemptAt = NULL, p.failureReason = NULL, " +
+            "p.retriesAttempted = p.retriesAttempted + 1 WHERE p.id IN :ids")
+    int reserve(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now,
+                @Param("leaseOwner") String leaseOwner, @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
 }
@@ -0,0 +1,182 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.Campaign;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adapts each running campaign's concurrency to how the carrier is doing (AIMD).
+ * <p>
+ * With {@code campaign.pacing.adaptive} the dispatcher fills up to a campaign's effective
+ * limit instead of its configured {@code concurrencyLimit}. The limit starts at the
+ * configured one. Every {@code campaign.pacing.interval-ms} the calls of the last interval
+ * are looked at: when the average {@code CallService.triggerCall} latency is above
+ * {@code campaign.pacing.latency-threshold-ms}, or the share of calls that ended
+ * {@code FAILED} is above {@code campaign.pacing.max-failure-rate}, the limit is multiplied
+ * by {@code campaign.pacing.decrease-factor}, down to {@code campaign.pacing.min-concurrency}.
+ * Otherwise it grows by {@code campaign.pacing.increase-step}, up to the configured limit.
+ * Intervals with fewer than {@code campaign.pacing.min-samples} calls leave it alone. The
+ * limit is exported as {@code campaign.concurrency.effective_limit}.
+ * <p>
+ * A campaign's pacing and gauge are dropped when it pauses or completes here, and campaigns
+ * that stopped on another instance are dropped by the next {@link #adjust()} once they are
+ * gone from the {@link RunningCampaignRegistry}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private final MeterRegistry meterRegistry;
+    private final RunningCampaignRegistry runningCampaignRegistry;
+
+    @Value("${campaign.pacing.adaptive:false}")
+    private boolean adaptive;
+
+    @Value("${campaign.pacing.min-concurrency:1}")
+    private int minConcurrency;
+
+    @Value("${campaign.pacing.latency-threshold-ms:1000}")
+    private long latencyThresholdMs;
+
+    @Value("${campaign.pacing.max-failure-rate:0.5}")
+    private double maxFailureRate;
+
+    @Value("${campaign.pacing.decrease-factor:0.7}")
+    private double decreaseFactor;
+
+    @Value("${campaign.pacing.increase-step:5}")
+    private int increaseStep;
+
+    @Value("${campaign.pacing.min-samples:10}")
+    private int minSamples;
+
+    private final Map<Long, Pacing> pacings = new ConcurrentHashMap<>();
+
+    /**
+     * How many calls the campaign may have in progress right now.
+     */
+    public int limitFor(RunningCampaign campaign) {
+        int configured = campaign.concurrencyLimit();
+        if (!adaptive) {
+            return configured;
+        }
+        Pacing pacing = pacings.computeIfAbsent(campaign.id(), id -> register(id, configured));
+        pacing.maxLimit = configured;
+        return Math.min(pacing.limit, configured);
+    }
+
+    /**
+     * The campaign's current limit, without starting to track it.
+     */
+    public int currentLimit(Campaign campaign) {
+        Pacing pacing = adaptive ? pacings.get(campaign.getId()) : null;
+        return pacing != null ? Math.min(pacing.limit, campaign.getConcurrencyLimit()) : campaign.getConcurrencyLimit();
+    }
+
+    void recordTrigger(Long campaignId, long latencyNanos) {
+        Pacing pacing = adaptive ? pacings.get(campaignId) : null;
+        if (pacing != null) {
+            pacing.triggers.increment();
+            pacing.latencyNanos.add(latencyNanos);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCallStatusChanged(CallStatusChangedEvent event) {
+        Pacing pacing = adaptive && event.previousStatus() == CallStatus.IN_PROGRESS ? pacings.get(event.campaignId()) : null;
+        if (pacing == null) {
+            return;
+        }
+        if (event.newStatus() == CallStatus.FAILED) {
+            pacing.failed.increment();
+        } else if (event.newStatus() == CallStatus.COMPLETED) {
+            pacing.completed.increment();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignStatusChanged(CampaignStatusChangedEvent event) {
+        if (event.newStatus() == CampaignStatus.PAUSED || event.newStatus() == CampaignStatus.COMPLETED) {
+            forget(event.campaignId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.pacing.interval-ms:1000}")
+    public void adjust() {
+        pacings.forEach((campaignId, pacing) -> {
+            if (runningCampaignRegistry.get(campaignId) == null) {
+                forget(campaignId);
+            } else {
+                adjust(campaignId, pacing);
+            }
+        });
+    }
+
+    // Under the map's lock, so a concurrent limitFor can't register its gauge in between
+    private void forget(Long campaignId) {
+        pacings.computeIfPresent(campaignId, (id, pacing) -> {
+            meterRegistry.remove(pacing.gauge);
+            return null;
+        });
+    }
+
+    private void adjust(Long campaignId, Pacing pacing) {
+        long triggers = pacing.triggers.sumThenReset();
+        long latencyNanos = pacing.latencyNanos.sumThenReset();
+        long failed = pacing.failed.sumThenReset();
+        long finished = failed + pacing.completed.sumThenReset();
+        if (triggers + finished < minSamples) {
+            return;
+        }
+        boolean slow = triggers > 0 && latencyNanos / triggers > latencyThresholdMs * 1_000_000;
+        boolean failing = finished > 0 && (double) failed / finished > maxFailureRate;
+        int previous = Math.min(pacing.limit, pacing.maxLimit);
+        int next = slow || failing
+                ? Math.max(minConcurrency, (int) (previous * decreaseFactor))
+                : Math.min(pacing.maxLimit, previous + increaseStep);
+        if (next != previous) {
+            pacing.limit = next;
+            log.debug("Campaign {} concurrency {} -> {} (triggers {}, avg latency {} ms, failed {}/{})", campaignId,
+                    previous, next, triggers, triggers > 0 ? latencyNanos / triggers / 1_000_000 : 0, failed, finished);
+        }
+    }
+
+    private Pacing register(Long campaignId, int configured) {
+        Pacing pacing = new Pacing(configured);
+        pacing.gauge = Gauge.builder("campaign.concurrency.effective_limit", pacing, p -> Math.min(p.limit, p.maxLimit))
+                .description("Concurrency limit the dispatcher currently fills up to")
+                .tag("campaign", campaignId.toString())
+                .register(meterRegistry);
+        return pacing;
+    }
+
+    private static final class Pacing {
+        private final LongAdder triggers = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private volatile int limit;
+        private volatile int maxLimit;
+        private Gauge gauge;
+
+        private Pacing(int limit) {
+            this.limit = limit;
+            this.maxLimit = limit;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of which running campaigns are inside their business hours.
+ * <p>
+ * A campaign's {@link BusinessHoursSchedule} comes resolved with its {@link RunningCampaign}
+ * snapshot and is registered when the campaign is first dispatched, and its next open or close instant is kept in a queue ordered by time. {@link #advance}
+ * only pops the transitions that are due, so checking whether a campaign is open is a map
+ * lookup and campaigns outside their hours cost nothing until they open again. Entries are
+ * dropped when a campaign stops running, and rebuilt when it is started again or the
+ * registry takes a new snapshot of it.
+ */
+@Component
+@RequiredArgsConstructor
+public class BusinessHoursCalendar {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // Guarded by itself; transitions of removed or rebuilt entries are skipped when they come due
+    private final PriorityQueue<Transition> transitions = new PriorityQueue<>(Comparator.comparing(Transition::at));
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("campaign.business_hours.open", entries, e -> e.values().stream().filter(entry -> entry.open).count())
+                .description("Running campaigns inside their business hours")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the campaign is inside its business hours, registering it on first use.
+     */
+    public boolean isOpen(RunningCampaign campaign) {
+        return isOpen(campaign, Instant.now());
+    }
+
+    boolean isOpen(RunningCampaign campaign, Instant now) {
+        Entry entry = entries.get(campaign.id());
+        if (entry == null || entry.schedule != campaign.businessHours()) {
+            entry = register(campaign, now);
+        }
+        return entry.open;
+    }
+
+    /**
+     * True only for a registered campaign that is outside its business hours, so callers
+     * can skip it without loading it.
+     */
+    public boolean isClosed(Long campaignId) {
+        Entry entry = entries.get(campaignId);
+        return entry != null && !entry.open;
+    }
+
+    /**
+     * Applies the transitions due by {@code now} and returns the campaigns that opened.
+     */
+    public List<Long> advance(Instant now) {
+        List<Long> opened = new ArrayList<>();
+        synchronized (transitions) {
+            Transition next;
+            while ((next = transitions.peek()) != null && !next.at().isAfter(now)) {
+                transitions.poll();
+                Entry entry = next.entry();
+                if (entries.get(next.campaignId()) != entry) {
+                    continue;
+                }
+                boolean wasOpen = entry.open;
+                update(next.campaignId(), entry, now);
+                if (!wasOpen && entry.open) {
+                    opened.add(next.campaignId());
+                }
+            }
+        }
+        return opened;
+    }
+
+    public void remove(Long campaignId) {
+        entries.remove(campaignId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignStatusChanged(CampaignStatusChangedEvent event) {
+        if (event.newStatus() != CampaignStatus.RUNNING) {
+            remove(event.campaignId());
+        }
+    }
+
+    private Entry register(RunningCampaign campaign, Instant now) {
+        Entry entry = new Entry(campaign.businessHours());
+        synchronized (transitions) {
+            update(campaign.id(), entry, now);
+            entries.put(campaign.id(), entry);
+        }
+        return entry;
+    }
+
+    private void update(Long campaignId, Entry entry, Instant now) {
+        BusinessHoursSchedule.State state = entry.schedule.stateAt(now);
+        entry.open = state.open();
+        if (state.nextChange() != null) {
+            transitions.add(new Transition(state.nextChange(), campaignId, entry));
+        }
+    }
+
+    private record Transition(Instant at, Long campaignId, Entry entry) {
+    }
+
+    private static final class Entry {
+        private final BusinessHoursSchedule schedule;
+        private volatile boolean open;
+
+        private Entry(BusinessHoursSchedule schedule) {
+            this.schedule = schedule;
+        }
+    }
+}
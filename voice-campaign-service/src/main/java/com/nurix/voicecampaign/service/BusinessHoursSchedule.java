@@ -0,0 +1,99 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.model.BusinessHours;
+import com.nurix.voicecampaign.model.Campaign;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A campaign's calling windows resolved against its timezone.
+ * <p>
+ * Windows come from the campaign's per-weekday business hours or, when it has none, its
+ * start and end time on every day. A window whose end is not after its start runs past
+ * midnight, and no window starts on a holiday. A campaign without any hours or holidays
+ * is always open.
+ */
+final class BusinessHoursSchedule {
+
+    // How far ahead to look for the next window, so that long holiday lists still terminate
+    private static final int MAX_DAYS_AHEAD = 400;
+
+    private final ZoneId zone;
+    private final List<Window> windows;
+    private final Set<LocalDate> holidays;
+
+    BusinessHoursSchedule(ZoneId zone, List<Window> windows, Set<LocalDate> holidays) {
+        this.zone = zone;
+        this.windows = List.copyOf(windows);
+        this.holidays = Set.copyOf(holidays);
+    }
+
+    static BusinessHoursSchedule of(Campaign campaign, ZoneId zone) {
+        List<Window> windows = new ArrayList<>();
+        if (campaign.getBusinessHours() != null && !campaign.getBusinessHours().isEmpty()) {
+            for (BusinessHours hours : campaign.getBusinessHours()) {
+                windows.add(new Window(hours.getDayOfWeek(), hours.getStartTime(), hours.getEndTime()));
+            }
+        } else if (campaign.getStartTime() != null && campaign.getEndTime() != null) {
+            windows.add(new Window(null, campaign.getStartTime(), campaign.getEndTime()));
+        }
+        Set<LocalDate> holidays = campaign.getHolidays() != null ? campaign.getHolidays() : Set.of();
+        if (windows.isEmpty() && !holidays.isEmpty()) {
+            // Open all day, except on holidays
+            windows.add(new Window(null, LocalTime.MIDNIGHT, LocalTime.MIDNIGHT));
+        }
+        return new BusinessHoursSchedule(zone, windows, holidays);
+    }
+
+    /**
+     * Whether the campaign may call at {@code now}, and when that next changes
+     * ({@code null} if it never does).
+     */
+    State stateAt(Instant now) {
+        if (windows.isEmpty()) {
+            return new State(true, null);
+        }
+        LocalDate today = LocalDate.ofInstant(now, zone);
+        Instant nextOpen = null;
+        // Yesterday's windows may still be open past midnight
+        for (int day = -1; day <= MAX_DAYS_AHEAD; day++) {
+            LocalDate date = today.plusDays(day);
+            if (holidays.contains(date)) {
+                continue;
+            }
+            for (Window window : windows) {
+                if (window.dayOfWeek() != null && window.dayOfWeek() != date.getDayOfWeek()) {
+                    continue;
+                }
+                Instant start = date.atTime(window.start()).atZone(zone).toInstant();
+                LocalDate endDate = window.end().isAfter(window.start()) ? date : date.plusDays(1);
+                Instant end = endDate.atTime(window.end()).atZone(zone).toInstant();
+                if (!now.isBefore(start) && now.isBefore(end)) {
+                    // An adjacent window opening at the end is picked up when the state is recomputed then
+                    return new State(true, end);
+                }
+                if (start.isAfter(now) && (nextOpen == null || start.isBefore(nextOpen))) {
+                    nextOpen = start;
+                }
+            }
+            // Windows on later days start later still
+            if (nextOpen != null && day >= 0) {
+                break;
+            }
+        }
+        return new State(false, nextOpen);
+    }
+
+    record Window(DayOfWeek dayOfWeek, LocalTime start, LocalTime end) {
+    }
+
+    record State(boolean open, Instant nextChange) {
+    }
+}
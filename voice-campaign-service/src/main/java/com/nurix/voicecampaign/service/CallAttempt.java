@@ -0,0 +1,15 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.FailureReason;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished call attempt, as appended to {@code call_attempts}. {@code startedAt} is when
+ * the number was reserved for the attempt; {@code externalCallId} is null if the provider
+ * never accepted the call, and so is {@code startedAt} when the reaper ends such a claim.
+ */
+public record CallAttempt(Long campaignId, Long phoneNumberId, int attempt, String externalCallId,
+                          CallStatus status, FailureReason failureReason, LocalDateTime startedAt, LocalDateTime endedAt) {
+}
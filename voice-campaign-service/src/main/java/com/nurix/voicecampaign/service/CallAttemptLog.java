@@ -0,0 +1,181 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.dto.CallAttemptResponse;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.FailureReason;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only history of call attempts in {@code call_attempts}.
+ * <p>
+ * {@code phone_numbers} only holds each number's current state, which the next attempt
+ * overwrites. Wherever an attempt ends ({@link CallTriggerPipeline} for calls the provider
+ * refused, {@link CallEventService} for provider outcomes, {@link StuckCallReaper} for lost
+ * calls) the finished attempt is handed to {@link #append}. It is queued once the outcome
+ * commits and inserted with the others every {@code campaign.call-attempts.flush-interval-ms},
+ * {@code campaign.call-attempts.batch-size} rows per JDBC batch. Rows are never updated, so
+ * the history adds no writes to the hot {@code phone_numbers} rows and its analytics never
+ * touch the dispatch indexes. At most {@code campaign.call-attempts.max-queued} attempts are
+ * held, failed batches included, so a database outage can't exhaust the heap; attempts beyond
+ * that are dropped and counted in {@code call.attempts.dropped}. Attempts still queued when
+ * the process dies are lost too; the numbers' state is not affected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CallAttemptLog {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${campaign.call-attempts.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${campaign.call-attempts.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${campaign.call-attempts.max-queued:100000}")
+    private int maxQueued;
+
+    private final Queue<CallAttempt> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private ScheduledExecutorService flushExecutor;
+
+    @PostConstruct
+    public void start() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "call-attempt-flush"));
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        Gauge.builder("call.attempts.queued", queued, AtomicInteger::get)
+                .description("Finished call attempts waiting to be appended to call_attempts")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * Queues finished attempts; inside a transaction only once it commits, so an outcome
+     * that is rolled back leaves no history.
+     */
+    public void append(List<CallAttempt> attempts) {
+        if (attempts.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(attempts);
+                }
+            });
+        } else {
+            enqueue(attempts);
+        }
+    }
+
+    private void enqueue(List<CallAttempt> attempts) {
+        int dropped = 0;
+        for (CallAttempt attempt : attempts) {
+            // Counts from the moment an attempt is queued until it is inserted, so batches being retried hold their place
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                dropped++;
+            } else {
+                queue.add(attempt);
+            }
+        }
+        if (dropped > 0) {
+            meterRegistry.counter("call.attempts.dropped").increment(dropped);
+        }
+    }
+
+    void flush() {
+        while (!queue.isEmpty()) {
+            List<CallAttempt> batch = new ArrayList<>(Math.min(batchSize, queued.get()));
+            CallAttempt attempt;
+            while (batch.size() < batchSize && (attempt = queue.poll()) != null) {
+                batch.add(attempt);
+            }
+            try {
+                insert(batch);
+                queued.addAndGet(-batch.size());
+            } catch (RuntimeException e) {
+                // Retried on the next flush; still counted in queued, so new attempts are shed while the backlog is full
+                log.error("Failed to append {} call attempts", batch.size(), e);
+                queue.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    private void insert(List<CallAttempt> batch) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO call_attempts (campaign_id, phone_number_id, attempt, external_call_id, status, failure_reason, " +
+                        "started_at, ended_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                batch, batch.size(), (ps, attempt) -> {
+                    ps.setLong(1, attempt.campaignId());
+                    ps.setLong(2, attempt.phoneNumberId());
+                    ps.setInt(3, attempt.attempt());
+                    ps.setString(4, attempt.externalCallId());
+                    ps.setString(5, attempt.status().name());
+                    ps.setString(6, attempt.failureReason() != null ? attempt.failureReason().name() : null);
+                    ps.setTimestamp(7, attempt.startedAt() != null ? Timestamp.valueOf(attempt.startedAt()) : null);
+                    ps.setTimestamp(8, Timestamp.valueOf(attempt.endedAt()));
+                });
+    }
+
+    /**
+     * A number's attempts, oldest first.
+     */
+    public List<CallAttemptResponse> findAttempts(Long campaignId, Long phoneNumberId) {
+        return jdbcTemplate.query(
+                "SELECT attempt, external_call_id, status, failure_reason, started_at, ended_at FROM call_attempts " +
+                        "WHERE campaign_id = ? AND phone_number_id = ? ORDER BY attempt, id",
+                (rs, row) -> {
+                    LocalDateTime startedAt = toLocalDateTime(rs.getTimestamp("started_at"));
+                    LocalDateTime endedAt = toLocalDateTime(rs.getTimestamp("ended_at"));
+                    String failureReason = rs.getString("failure_reason");
+                    return CallAttemptResponse.builder()
+                            .attempt(rs.getInt("attempt"))
+                            .externalCallId(rs.getString("external_call_id"))
+                            .status(CallStatus.valueOf(rs.getString("status")))
+                            .failureReason(failureReason != null ? FailureReason.valueOf(failureReason) : null)
+                            .startedAt(startedAt)
+                            .endedAt(endedAt)
+                            .durationMs(startedAt != null ? Duration.between(startedAt, endedAt).toMillis() : null)
+                            .build();
+                },
+                campaignId, phoneNumberId);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,234 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.FailureReason;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies call status events, pushed by the provider to {@code POST /calls/{id}/events}
+ * or produced by the reconciling poll in {@link CampaignScheduler}, to phone numbers.
+ * <p>
+ * Events are buffered per provider call id and flushed every
+ * {@code campaign.call-events.flush-interval-ms} as one batch update. While buffered,
+ * events for the same call are coalesced: a terminal status (COMPLETED, FAILED) beats a
+ * non-terminal one and otherwise the latest {@code occurredAt} wins, so events may arrive
+ * out of order. Calls are matched on {@code in_flight_calls}, whose row is deleted with the
+ * outcome, and rows are only moved out of IN_PROGRESS for the same attempt, which makes
+ * duplicates and late events no-ops. Events for a call id that isn't stored yet, e.g. a
+ * callback racing the write-back of the call id, are retried until
+ * {@code campaign.call-events.unmatched-ttl-ms}.
+ * A failed call is scheduled for its retry by {@link RetryScheduler} in the same update, and
+ * every finished attempt is handed to {@link CallAttemptLog}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CallEventService {
+
+    private static final int QUERY_CHUNK_SIZE = 500;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final RetryScheduler retryScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CallAttemptLog callAttemptLog;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${campaign.call-events.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${campaign.call-events.unmatched-ttl-ms:30000}")
+    private long unmatchedTtlMs;
+
+    private final Map<String, PendingEvent> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flushExecutor;
+
+    @PostConstruct
+    public void start() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "call-event-flush"));
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public void record(String callId, CallStatus status, Instant occurredAt) {
+        record(callId, status, null, occurredAt);
+    }
+
+    public void record(String callId, CallStatus status, FailureReason failureReason, Instant occurredAt) {
+        if (status == CallStatus.PENDING) {
+            throw new IllegalArgumentException("PENDING is not a call event status");
+        }
+        PendingEvent event = new PendingEvent(status, status == CallStatus.FAILED ? failureReason : null,
+                occurredAt != null ? occurredAt : Instant.now(), System.currentTimeMillis());
+        pending.merge(callId, event, PendingEvent::merge);
+    }
+
+    void flush() {
+        try {
+            Map<String, PendingEvent> batch = drain();
+            if (!batch.isEmpty()) {
+                transactionTemplate.executeWithoutResult(tx -> apply(batch));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to apply call events", e);
+        }
+    }
+
+    private Map<String, PendingEvent> drain() {
+        Map<String, PendingEvent> batch = new HashMap<>();
+        for (Map.Entry<String, PendingEvent> entry : pending.entrySet()) {
+            // Only taken if no newer event was merged in meanwhile; otherwise it waits for the next flush
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return batch;
+    }
+
+    private void apply(Map<String, PendingEvent> batch) {
+        // IN_PROGRESS events (ringing, answered) don't change the stored status
+        List<String> callIds = batch.entrySet().stream()
+                .filter(entry -> entry.getValue().isTerminal())
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<String, StoredCall> stored = findByCallIds(callIds);
+
+        Timer applyLag = Timer.builder("call.status.apply.lag")
+                .description("Time from a call status change at the provider to it being stored")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        List<Object[]> updates = new ArrayList<>();
+        List<AppliedEvent> updatedCalls = new ArrayList<>();
+        List<String> finishedCallIds = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (String callId : callIds) {
+            PendingEvent event = batch.get(callId);
+            StoredCall call = stored.get(callId);
+            if (call == null) {
+                if (now - event.receivedAt() < unmatchedTtlMs) {
+                    pending.merge(callId, event, PendingEvent::merge);
+                } else {
+                    // Also a redelivery of an outcome already stored, whose in-flight row is gone
+                    log.debug("Dropping {} event for unknown call {}", event.status(), callId);
+                    meterRegistry.counter("call.events.unmatched").increment();
+                }
+                continue;
+            }
+            finishedCallIds.add(callId);
+            if (call.status() == CallStatus.IN_PROGRESS && call.retriesAttempted() == call.attempt()) {
+                FailureReason reason = null;
+                Timestamp nextAttemptAt = null;
+                if (event.status() == CallStatus.FAILED) {
+                    reason = event.failureReason() != null ? event.failureReason() : FailureReason.UNKNOWN;
+                    LocalDateTime retryAt = retryScheduler.nextAttemptAt(call.campaignId(), call.retriesAttempted(), reason);
+                    nextAttemptAt = retryAt != null ? Timestamp.valueOf(retryAt) : null;
+                }
+                updates.add(new Object[]{event.status().name(), reason != null ? reason.name() : null, nextAttemptAt,
+                        new Timestamp(now), call.id(), call.attempt()});
+                applyLag.record(Duration.between(event.occurredAt(), Instant.ofEpochMilli(now)));
+                updatedCalls.add(new AppliedEvent(call, callId, event.status(), reason, event.occurredAt(), nextAttemptAt != null));
+            }
+        }
+        // Matched calls are done with, whether or not the number was still waiting for them
+        namedParameterJdbcTemplate.getJdbcTemplate().batchUpdate(
+                "DELETE FROM in_flight_calls WHERE external_call_id = ?",
+                finishedCallIds.stream().map(callId -> new Object[]{callId}).toList());
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        int[] counts = namedParameterJdbcTemplate.getJdbcTemplate().batchUpdate(
+                "UPDATE phone_numbers SET status = ?, failure_reason = ?, next_attempt_at = ?, lease_expires_at = NULL, updated_at = ? " +
+                        "WHERE id = ? AND status = 'IN_PROGRESS' AND retries_attempted = ?", updates);
+        List<CallAttempt> attempts = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                AppliedEvent applied = updatedCalls.get(i);
+                StoredCall call = applied.call();
+                log.debug("Updating status for number {} to {}", call.id(), applied.status());
+                meterRegistry.counter("call.outcomes", "status", applied.status().name()).increment();
+                eventPublisher.publishEvent(new CallStatusChangedEvent(
+                        call.campaignId(), call.id(), CallStatus.IN_PROGRESS, applied.status(), applied.retryScheduled()));
+                attempts.add(new CallAttempt(call.campaignId(), call.id(), call.retriesAttempted(), applied.callId(),
+                        applied.status(), applied.reason(), call.startedAt(),
+                        LocalDateTime.ofInstant(applied.occurredAt(), ZoneId.systemDefault())));
+            }
+        }
+        callAttemptLog.append(attempts);
+    }
+
+    private Map<String, StoredCall> findByCallIds(List<String> callIds) {
+        Map<String, StoredCall> stored = new HashMap<>();
+        for (int from = 0; from < callIds.size(); from += QUERY_CHUNK_SIZE) {
+            List<String> chunk = callIds.subList(from, Math.min(callIds.size(), from + QUERY_CHUNK_SIZE));
+            namedParameterJdbcTemplate.query(
+                    "SELECT f.external_call_id, f.phone_number_id, f.campaign_id, f.attempt, f.started_at, p.status, " +
+                            "p.retries_attempted FROM in_flight_calls f JOIN phone_numbers p " +
+                            "ON p.campaign_id = f.campaign_id AND p.id = f.phone_number_id WHERE f.external_call_id IN (:callIds)",
+                    new MapSqlParameterSource("callIds", chunk),
+                    rs -> {
+                        Timestamp startedAt = rs.getTimestamp("started_at");
+                        stored.put(rs.getString("external_call_id"), new StoredCall(rs.getLong("phone_number_id"),
+                                rs.getLong("campaign_id"), rs.getInt("attempt"), CallStatus.valueOf(rs.getString("status")),
+                                rs.getInt("retries_attempted"), startedAt != null ? startedAt.toLocalDateTime() : null));
+                    });
+        }
+        return stored;
+    }
+
+    private record StoredCall(long id, long campaignId, int attempt, CallStatus status, int retriesAttempted,
+                              LocalDateTime startedAt) {
+    }
+
+    private record AppliedEvent(StoredCall call, String callId, CallStatus status, FailureReason reason, Instant occurredAt,
+                                boolean retryScheduled) {
+    }
+
+    private record PendingEvent(CallStatus status, FailureReason failureReason, Instant occurredAt, long receivedAt) {
+
+        boolean isTerminal() {
+            return status == CallStatus.COMPLETED || status == CallStatus.FAILED;
+        }
+
+        static PendingEvent merge(PendingEvent existing, PendingEvent incoming) {
+            if (existing.isTerminal() != incoming.isTerminal()) {
+                return existing.isTerminal() ? existing : incoming;
+            }
+            return incoming.occurredAt().isAfter(existing.occurredAt()) ? incoming : existing;
+        }
+    }
+}
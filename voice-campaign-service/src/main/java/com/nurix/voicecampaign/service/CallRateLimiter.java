@@ -0,0 +1,330 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carrier limits applied in front of {@link CallService#triggerCall}: calls per second
+ * globally, per campaign and per caller ID, and concurrent channels globally and per
+ * caller ID. A limit of 0 disables it.
+ * <p>
+ * Rates are {@link TokenBucket}s and channels are atomic counters, one per key in a
+ * {@link ConcurrentHashMap}, so there is no lock shared between campaigns. A call only
+ * goes out once every applicable limit has admitted it; if one refuses, what the others
+ * handed out is given back. Channels are held per phone number until its call leaves
+ * IN_PROGRESS. That is normally seen as a {@link CallStatusChangedEvent}, but a call can
+ * also end on another instance (a callback applied there, or its reaper), so every
+ * {@code campaign.rate-limit.channel-reconcile-interval-ms} the channels of numbers that
+ * are no longer IN_PROGRESS in the database are released as well.
+ * <p>
+ * All limits are enforced per instance: with several instances each one admits up to the
+ * configured rates and channels, so set them to the carrier's limits divided by the number
+ * of instances. A campaign's bucket is dropped when it pauses or completes, and caller IDs
+ * with no channel in use and a full bucket are dropped on the reconcile interval.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CallRateLimiter {
+
+    private static final String NO_CALLER_ID = "";
+
+    private static final int QUERY_CHUNK_SIZE = 500;
+
+    private final MeterRegistry meterRegistry;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${campaign.rate-limit.global-cps:0}")
+    private double globalCps;
+
+    @Value("${campaign.rate-limit.per-campaign-cps:0}")
+    private double perCampaignCps;
+
+    @Value("${campaign.rate-limit.per-caller-id-cps:0}")
+    private double perCallerIdCps;
+
+    @Value("${campaign.rate-limit.burst:1}")
+    private int burst;
+
+    @Value("${campaign.rate-limit.global-channels:0}")
+    private int globalChannels;
+
+    @Value("${campaign.rate-limit.per-caller-id-channels:0}")
+    private int perCallerIdChannels;
+
+    // How long a call refused for lack of channels waits before it is tried again
+    @Value("${campaign.rate-limit.channel-retry-ms:50}")
+    private long channelRetryMs;
+
+    private TokenBucket globalBucket;
+    private final Map<Long, TokenBucket> campaignBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> callerIdBuckets = new ConcurrentHashMap<>();
+
+    private final AtomicInteger globalChannelsInUse = new AtomicInteger();
+    private final Map<String, AtomicInteger> callerIdChannelsInUse = new ConcurrentHashMap<>();
+    // Channel taken for each phone number id
+    private final Map<Long, Channel> channelHolders = new ConcurrentHashMap<>();
+
+    private Counter globalDenied;
+    private Counter campaignDenied;
+    private Counter callerIdDenied;
+
+    @PostConstruct
+    public void init() {
+        if (globalCps > 0) {
+            globalBucket = new TokenBucket(globalCps, burst);
+        }
+        globalDenied = deniedCounter("global");
+        campaignDenied = deniedCounter("campaign");
+        callerIdDenied = deniedCounter("caller_id");
+        Gauge.builder("call.rate_limiter.channels.in_use", globalChannelsInUse, AtomicInteger::get)
+                .description("Provider channels held by calls in progress")
+                .register(meterRegistry);
+        if (globalChannels > 0) {
+            Gauge.builder("call.rate_limiter.channels.saturation", globalChannelsInUse, used -> (double) used.get() / globalChannels)
+                    .description("Share of the global channel limit in use")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Admits the call if every limit allows it.
+     *
+     * @return 0 if the call may be placed now, otherwise how long to defer it in nanoseconds
+     */
+    public long tryAcquire(ReservedCall call) {
+        return tryAcquire(call, false);
+    }
+
+    /**
+     * Admits the call if every limit allows it. A {@code retry} of a call that was already
+     * deferred is not counted as denied again.
+     *
+     * @return 0 if the call may be placed now, otherwise how long to defer it in nanoseconds
+     */
+    public long tryAcquire(ReservedCall call, boolean retry) {
+        String callerId = call.callerId() != null ? call.callerId() : NO_CALLER_ID;
+        long now = System.nanoTime();
+
+        // Channels first: they are returned exactly, while a refunded rate token may lose its slot in time
+        if (!acquireChannels(call.phoneNumberId(), callerId, retry)) {
+            return TimeUnit.MILLISECONDS.toNanos(channelRetryMs);
+        }
+
+        TokenBucket campaignBucket = perCampaignCps > 0
+                ? campaignBuckets.computeIfAbsent(call.campaignId(), id -> new TokenBucket(perCampaignCps, burst))
+                : null;
+        TokenBucket callerIdBucket = perCallerIdCps > 0 && !callerId.isEmpty()
+                ? callerIdBuckets.computeIfAbsent(callerId, id -> new TokenBucket(perCallerIdCps, burst))
+                : null;
+
+        long wait = take(campaignBucket, now, retry ? null : campaignDenied);
+        if (wait == 0) {
+            wait = take(callerIdBucket, now, retry ? null : callerIdDenied);
+            if (wait == 0) {
+                wait = take(globalBucket, now, retry ? null : globalDenied);
+                if (wait == 0) {
+                    return 0;
+                }
+                refund(callerIdBucket);
+            }
+            refund(campaignBucket);
+        }
+        releaseChannels(call.phoneNumberId());
+        return wait;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCallStatusChanged(CallStatusChangedEvent event) {
+        if (event.previousStatus() == CallStatus.IN_PROGRESS) {
+            releaseChannels(event.phoneNumberId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignStatusChanged(CampaignStatusChangedEvent event) {
+        if (event.newStatus() == CampaignStatus.PAUSED || event.newStatus() == CampaignStatus.COMPLETED) {
+            campaignBuckets.remove(event.campaignId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.rate-limit.channel-reconcile-interval-ms:30000}")
+    public void evictIdleCallerIds() {
+        long now = System.nanoTime();
+        // A full bucket is in the same state as a new one
+        callerIdBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        for (String callerId : callerIdChannelsInUse.keySet()) {
+            callerIdChannelsInUse.computeIfPresent(callerId, (id, inUse) -> {
+                if (inUse.get() > 0) {
+                    return inUse;
+                }
+                meterRegistry.find("call.rate_limiter.caller_id.channels.in_use").tag("caller_id", id).meters()
+                        .forEach(meterRegistry::remove);
+                return null;
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.rate-limit.channel-reconcile-interval-ms:30000}")
+    public void reconcileChannels() {
+        // Channels taken after this snapshot are left alone
+        Map<Long, Channel> held = new HashMap<>(channelHolders);
+        if (held.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(held.keySet());
+        Set<Long> inProgress = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += QUERY_CHUNK_SIZE) {
+            inProgress.addAll(namedParameterJdbcTemplate.queryForList(
+                    "SELECT id FROM phone_numbers WHERE id IN (:ids) AND status = 'IN_PROGRESS'",
+                    new MapSqlParameterSource("ids", ids.subList(from, Math.min(ids.size(), from + QUERY_CHUNK_SIZE))),
+                    Long.class));
+        }
+        int released = 0;
+        for (Map.Entry<Long, Channel> entry : held.entrySet()) {
+            if (!inProgress.contains(entry.getKey()) && channelHolders.remove(entry.getKey(), entry.getValue())) {
+                release(entry.getValue());
+                released++;
+            }
+        }
+        if (released > 0) {
+            log.info("Released {} channels of calls that ended elsewhere", released);
+            meterRegistry.counter("call.rate_limiter.channels.reconciled").increment(released);
+        }
+    }
+
+    public int channelsInUse() {
+        return globalChannelsInUse.get();
+    }
+
+    private boolean acquireChannels(Long phoneNumberId, String callerId, boolean retry) {
+        if (globalChannels <= 0 && perCallerIdChannels <= 0) {
+            return true;
+        }
+        if (!tryIncrement(globalChannelsInUse, globalChannels)) {
+            if (!retry) {
+                globalDenied.increment();
+            }
+            return false;
+        }
+        if (!callerId.isEmpty() && !acquireCallerIdChannel(callerId)) {
+            globalChannelsInUse.decrementAndGet();
+            if (!retry) {
+                callerIdDenied.increment();
+            }
+            return false;
+        }
+        Channel previous = channelHolders.put(phoneNumberId, new Channel(callerId));
+        if (previous != null) {
+            // Still held from an earlier attempt whose end wasn't seen here
+            release(previous);
+        }
+        return true;
+    }
+
+    private void releaseChannels(Long phoneNumberId) {
+        Channel channel = channelHolders.remove(phoneNumberId);
+        if (channel != null) {
+            release(channel);
+        }
+    }
+
+    private void release(Channel channel) {
+        globalChannelsInUse.decrementAndGet();
+        if (!channel.callerId.isEmpty()) {
+            callerIdChannelsInUse.computeIfPresent(channel.callerId, (id, inUse) -> {
+                inUse.decrementAndGet();
+                return inUse;
+            });
+        }
+    }
+
+    // Under the map's lock, so evictIdleCallerIds can't drop a counter that is being taken
+    private boolean acquireCallerIdChannel(String callerId) {
+        boolean[] acquired = new boolean[1];
+        callerIdChannelsInUse.compute(callerId, (id, inUse) -> {
+            if (inUse == null) {
+                inUse = new AtomicInteger();
+                Gauge.builder("call.rate_limiter.caller_id.channels.in_use", inUse, AtomicInteger::get)
+                        .tag("caller_id", id)
+                        .register(meterRegistry);
+            }
+            acquired[0] = tryIncrement(inUse, perCallerIdChannels);
+            return inUse;
+        });
+        return acquired[0];
+    }
+
+    private static boolean tryIncrement(AtomicInteger counter, int limit) {
+        if (limit <= 0) {
+            counter.incrementAndGet();
+            return true;
+        }
+        while (true) {
+            int current = counter.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static long take(TokenBucket bucket, long now, Counter denied) {
+        if (bucket == null) {
+            return 0;
+        }
+        long wait = bucket.tryAcquire(now);
+        if (wait > 0 && denied != null) {
+            denied.increment();
+        }
+        return wait;
+    }
+
+    private static void refund(TokenBucket bucket) {
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    // Compared by identity, so a reconcile only releases the acquisition it saw
+    private static final class Channel {
+        private final String callerId;
+
+        private Channel(String callerId) {
+            this.callerId = callerId;
+        }
+    }
+
+    private Counter deniedCounter(String scope) {
+        return Counter.builder("call.rate_limiter.denied")
+                .description("Calls deferred because a rate or channel limit was reached")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,394 @@
+package com.nurix.voicecampaign.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nurix.voicecampaign.dto.CallRecordPage;
+import com.nurix.voicecampaign.dto.CallRecordResponse;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.ExportFormat;
+import com.nurix.voicecampaign.model.FailureReason;
+import com.nurix.voicecampaign.repository.CallRecord;
+import com.nurix.voicecampaign.repository.CampaignRepository;
+import com.nurix.voicecampaign.repository.PhoneNumberRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a campaign's call outcomes back out.
+ * <p>
+ * {@link #listCalls} pages with a keyset on the phone number id: the cursor is the last id
+ * of the previous page, so a page deep into a campaign of millions of numbers is a seek on
+ * {@code (campaign_id, id)} rather than an offset scan. {@link #export} writes every
+ * matching number as CSV or NDJSON straight from a JDBC cursor ({@code campaign.export.fetch-size}
+ * rows per round trip, inside a read-only transaction so PostgreSQL keeps the cursor open),
+ * so memory use doesn't depend on the campaign's size. Numbers moved out by
+ * {@link CampaignArchiver} are read from their gzipped CSV chunks first; their ids are
+ * all lower than those still in {@code phone_numbers}, so both the listing and the export
+ * stay in id order. A listing page decodes only the chunks covering ids after its cursor.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CallRecordService {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String CSV_HEADER = "id,number,status,retries_attempted,failure_reason,external_call_id," +
+            "last_attempt_time,next_attempt_at,created_at,updated_at";
+
+    // Same order as CSV_HEADER; selected FROM EXPORT_FROM
+    static final String EXPORT_COLUMNS = "p.id, p.number, p.status, p.retries_attempted, p.failure_reason, " +
+            "COALESCE(f.external_call_id, a.external_call_id) AS external_call_id, " +
+            "COALESCE(f.started_at, a.started_at) AS last_attempt_time, p.next_attempt_at, p.created_at, p.updated_at";
+
+    // The call id and start of each number's latest attempt: in_flight_calls while it runs, call_attempts after
+    static final String EXPORT_FROM = "phone_numbers p " +
+            "LEFT JOIN in_flight_calls f ON f.phone_number_id = p.id AND f.attempt = p.retries_attempted " +
+            "LEFT JOIN call_attempts a ON a.campaign_id = p.campaign_id AND a.phone_number_id = p.id " +
+            "AND a.attempt = p.retries_attempted";
+
+    private final CampaignRepository campaignRepository;
+    private final PhoneNumberRepository phoneNumberRepository;
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${campaign.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    private NamedParameterJdbcTemplate exportJdbcTemplate;
+    private TransactionTemplate exportTransaction;
+
+    @PostConstruct
+    public void start() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(exportFetchSize);
+        exportJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        exportTransaction = new TransactionTemplate(transactionManager);
+        exportTransaction.setReadOnly(true);
+    }
+
+    public CallRecordPage listCalls(Long campaignId, Set<CallStatus> statuses, Long after, int limit) {
+        requireCampaign(campaignId);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = after != null ? after : 0L;
+        // One extra row tells whether there is a next page
+        List<CallRecordResponse> records = listArchivedCalls(campaignId, statuses, cursor, pageSize + 1);
+        if (records.size() <= pageSize) {
+            List<String> statusNames = statusFilter(statuses).stream().map(Enum::name).toList();
+            phoneNumberRepository.findCallRecords(campaignId, cursor, statusNames, pageSize + 1 - records.size()).stream()
+                    .map(this::mapToResponse)
+                    .forEach(records::add);
+        }
+        boolean hasMore = records.size() > pageSize;
+        List<CallRecordResponse> calls = records.subList(0, Math.min(pageSize, records.size()));
+        return CallRecordPage.builder()
+                .calls(calls)
+                .nextCursor(hasMore ? calls.get(calls.size() - 1).getId() : null)
+                .build();
+    }
+
+    private List<CallRecordResponse> listArchivedCalls(Long campaignId, Set<CallStatus> statuses, long after, int limit) {
+        List<CallRecordResponse> calls = new ArrayList<>();
+        JdbcTemplate jdbcTemplate = exportJdbcTemplate.getJdbcTemplate();
+        List<Integer> chunks = jdbcTemplate.queryForList(
+                "SELECT chunk_no FROM phone_number_archive_chunks WHERE campaign_id = ? AND last_id > ? ORDER BY chunk_no",
+                Integer.class, campaignId, after);
+        List<String> statusNames = statusFilter(statuses).stream().map(Enum::name).toList();
+        for (Integer chunk : chunks) {
+            byte[] data = jdbcTemplate.queryForObject(
+                    "SELECT data FROM phone_number_archive_chunks WHERE campaign_id = ? AND chunk_no = ?",
+                    byte[].class, campaignId, chunk);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(data)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = parseCsvLine(line);
+                    if (Long.parseLong(fields[0]) > after && statusNames.contains(fields[2])) {
+                        calls.add(mapArchivedToResponse(fields));
+                        if (calls.size() == limit) {
+                            return calls;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * Fails fast for an unknown campaign, before the response has been committed.
+     */
+    public void requireCampaign(Long campaignId) {
+        if (!campaignRepository.existsById(campaignId)) {
+            throw new RuntimeException("Campaign not found");
+        }
+    }
+
+    public void export(Long campaignId, Set<CallStatus> statuses, ExportFormat format, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            RowWriter rowWriter = format == ExportFormat.CSV ? csvWriter(writer) : ndjsonWriter(writer);
+            List<String> statusNames = statusFilter(statuses).stream().map(Enum::name).toList();
+            long[] rows = {0};
+            exportTransaction.executeWithoutResult(tx -> {
+                exportJdbcTemplate.query(
+                        "SELECT data FROM phone_number_archive_chunks WHERE campaign_id = :campaignId ORDER BY chunk_no",
+                        new MapSqlParameterSource("campaignId", campaignId),
+                        rs -> {
+                            try {
+                                rows[0] += writeArchivedChunk(rs.getBytes("data"), statusNames, rowWriter);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                exportJdbcTemplate.query(
+                        "SELECT " + EXPORT_COLUMNS + " FROM " + EXPORT_FROM + " " +
+                                "WHERE p.campaign_id = :campaignId AND p.status IN (:statuses) ORDER BY p.id",
+                        new MapSqlParameterSource("campaignId", campaignId).addValue("statuses", statusNames),
+                        rs -> {
+                            try {
+                                rowWriter.write(rs);
+                            } catch (IOException e) {
+                                // Usually the client went away; stops the query
+                                throw new UncheckedIOException(e);
+                            }
+                            rows[0]++;
+                        });
+            });
+            writer.flush();
+            log.info("Exported {} calls of campaign {} as {}", rows[0], campaignId, format);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private RowWriter csvWriter(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        return new RowWriter() {
+            @Override
+            public void write(ResultSet rs) throws SQLException, IOException {
+                writeCsvRow(rs, writer);
+            }
+
+            @Override
+            public void writeArchived(String line, String[] fields) throws IOException {
+                writer.write(line);
+                writer.write('\n');
+            }
+        };
+    }
+
+    /**
+     * Writes the current row of a query over {@link #EXPORT_COLUMNS} as one CSV line.
+     */
+    static void writeCsvRow(ResultSet rs, Writer writer) throws SQLException, IOException {
+        writer.write(Long.toString(rs.getLong("id")));
+        writer.write(',');
+        writer.write(csvValue(rs.getString("number")));
+        writer.write(',');
+        writer.write(rs.getString("status"));
+        writer.write(',');
+        writer.write(Integer.toString(rs.getInt("retries_attempted")));
+        writer.write(',');
+        writer.write(csvValue(rs.getString("failure_reason")));
+        writer.write(',');
+        writer.write(csvValue(rs.getString("external_call_id")));
+        for (String column : List.of("last_attempt_time", "next_attempt_at", "created_at", "updated_at")) {
+            writer.write(',');
+            writer.write(timestamp(rs, column));
+        }
+        writer.write('\n');
+    }
+
+    private long writeArchivedChunk(byte[] data, List<String> statusNames, RowWriter rowWriter) throws IOException {
+        long rows = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(data)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = parseCsvLine(line);
+                if (statusNames.contains(fields[2])) {
+                    rowWriter.writeArchived(line, fields);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private RowWriter ndjsonWriter(Writer writer) throws IOException {
+        // Hands each row to the buffered writer without flushing the response; never closed, as that would close it
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        return new RowWriter() {
+            @Override
+            public void write(ResultSet rs) throws SQLException, IOException {
+                writeJson(rs.getLong("id"), rs.getString("number"), rs.getString("status"), rs.getInt("retries_attempted"),
+                        rs.getString("failure_reason"), rs.getString("external_call_id"),
+                        nullableTimestamp(rs, "last_attempt_time"), nullableTimestamp(rs, "next_attempt_at"),
+                        nullableTimestamp(rs, "created_at"), nullableTimestamp(rs, "updated_at"));
+            }
+
+            @Override
+            public void writeArchived(String line, String[] fields) throws IOException {
+                // Archived as CSV, where null and empty are both written as nothing
+                writeJson(Long.parseLong(fields[0]), fields[1], fields[2], Integer.parseInt(fields[3]),
+                        emptyToNull(fields[4]), emptyToNull(fields[5]), emptyToNull(fields[6]),
+                        emptyToNull(fields[7]), emptyToNull(fields[8]), emptyToNull(fields[9]));
+            }
+
+            private void writeJson(long id, String number, String status, int retriesAttempted, String failureReason,
+                                   String externalCallId, String lastAttemptTime, String nextAttemptAt,
+                                   String createdAt, String updatedAt) throws IOException {
+                generator.writeStartObject();
+                generator.writeNumberField("id", id);
+                generator.writeStringField("number", number);
+                generator.writeStringField("status", status);
+                generator.writeNumberField("retriesAttempted", retriesAttempted);
+                generator.writeStringField("failureReason", failureReason);
+                generator.writeStringField("externalCallId", externalCallId);
+                generator.writeStringField("lastAttemptTime", lastAttemptTime);
+                generator.writeStringField("nextAttemptAt", nextAttemptAt);
+                generator.writeStringField("createdAt", createdAt);
+                generator.writeStringField("updatedAt", updatedAt);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                generator.flush();
+            }
+        };
+    }
+
+    private static Collection<CallStatus> statusFilter(Set<CallStatus> statuses) {
+        return statuses == null || statuses.isEmpty() ? EnumSet.allOf(CallStatus.class) : statuses;
+    }
+
+    private static String timestamp(ResultSet rs, String column) throws SQLException {
+        String value = nullableTimestamp(rs, column);
+        return value != null ? value : "";
+    }
+
+    // ISO-8601, matching how the JSON API renders LocalDateTime
+    private static String nullableTimestamp(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value != null ? value.toLocalDateTime().toString() : null;
+    }
+
+    // Splits a line written by writeCsvRow back into its fields
+    static String[] parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private CallRecordResponse mapToResponse(CallRecord record) {
+        return CallRecordResponse.builder()
+                .id(record.getId())
+                .number(record.getNumber())
+                .status(record.getStatus())
+                .retriesAttempted(record.getRetriesAttempted())
+                .failureReason(record.getFailureReason())
+                .externalCallId(record.getExternalCallId())
+                .lastAttemptTime(record.getLastAttemptTime())
+                .nextAttemptAt(record.getNextAttemptAt())
+                .createdAt(record.getCreatedAt())
+                .updatedAt(record.getUpdatedAt())
+                .build();
+    }
+
+    // Archived as CSV, where null and empty are both written as nothing
+    private static CallRecordResponse mapArchivedToResponse(String[] fields) {
+        return CallRecordResponse.builder()
+                .id(Long.parseLong(fields[0]))
+                .number(fields[1])
+                .status(CallStatus.valueOf(fields[2]))
+                .retriesAttempted(Integer.parseInt(fields[3]))
+                .failureReason(fields[4].isEmpty() ? null : FailureReason.valueOf(fields[4]))
+                .externalCallId(emptyToNull(fields[5]))
+                .lastAttemptTime(parseTimestamp(fields[6]))
+                .nextAttemptAt(parseTimestamp(fields[7]))
+                .createdAt(parseTimestamp(fields[8]))
+                .updatedAt(parseTimestamp(fields[9]))
+                .build();
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        return value.isEmpty() ? null : LocalDateTime.parse(value);
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void writeArchived(String line, String[] fields) throws IOException;
+    }
+}
@@ -1,50 +1,320 @@
 package com.nurix.voicecampaign.service;
 
 import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.FailureReason;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * Simulated telephony provider.
+ * <p>
+ * Each call draws its outcome from {@code telephony.mock.outcomes} and its length from the
+ * configured distributions when it is placed: a completed call rings for
+ * {@code ring-duration} and then talks for {@code talk-duration}, an unanswered one rings
+ * for {@code ring-duration}, and any other failure ends after {@code reject-duration}. The
+ * call is {@code IN_PROGRESS} until then. Placing a call waits {@code trigger-latency}.
+ * <p>
+ * Calls are kept in a ring of {@code telephony.mock.max-tracked-calls} slots indexed by a
+ * sequence number, which is also the call id (behind a random per-instance prefix). A slot
+ * is two {@code long}s: the sequence number and the end time packed with the outcome, so
+ * 100k concurrent calls take a few MB and no objects. A slot is reused once its call has
+ * ended and been reported; if the oldest call is still running the provider is at capacity
+ * and refuses new calls. With a {@code callback-url}, one thread scans the live calls every
+ * {@code telephony.mock.tick-ms} and hands finished ones to {@code callback-threads} senders.
+ */
 @Service
+@Slf4j
 public class CallService {
 
-    private final Map<String, CallStatus> callStore = new ConcurrentHashMap<>();
+    private static final long EMPTY = -1;
+    private static final long OUTCOME_MASK = 0x0F;
+    private static final long REPORTED = 0x10;
+    private static final int END_SHIFT = 8;
+
+    // Simulated provider round trip per trigger request, to measure dispatch throughput offline
+    @Value("${telephony.mock.trigger-latency:fixed:0}")
+    private String triggerLatency;
+
+    @Value("${telephony.mock.ring-duration:uniform:500-1500}")
+    private String ringDuration;
+
+    @Value("${telephony.mock.talk-duration:lognormal:1500,0.5}")
+    private String talkDuration;
+
+    // Busy, invalid numbers and provider errors
+    @Value("${telephony.mock.reject-duration:uniform:50-300}")
+    private String rejectDuration;
+
+    // Relative weights of COMPLETED and FailureReason names
+    @Value("${telephony.mock.outcomes:COMPLETED:80,NO_ANSWER:10,BUSY:10}")
+    private String outcomes;
+
+    @Value("${telephony.mock.max-tracked-calls:262144}")
+    private int maxTrackedCalls;
+
+    // When set, calls finish on their own after the call duration and the outcome is pushed to
+    // {callback-url}/calls/{id}/events like a real provider would; otherwise it's read when polled
+    @Value("${telephony.mock.callback-url:}")
+    private String callbackUrl;
+
+    @Value("${telephony.mock.callback-threads:4}")
+    private int callbackThreads;
+
+    @Value("${telephony.mock.tick-ms:50}")
+    private long tickMs;
+
+    private final String idPrefix = Integer.toHexString(ThreadLocalRandom.current().nextInt()) + "-";
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong nextSeq = new AtomicLong();
+
+    private DurationDistribution triggerLatencyDistribution;
+    private DurationDistribution ringDistribution;
+    private DurationDistribution talkDistribution;
+    private DurationDistribution rejectDistribution;
+    private FailureReason[] outcomeReasons;
+    private int[] outcomeWeights;
+    private int totalWeight;
+
+    private long mask;
+    // Per slot: the sequence number of the call in it, and its end time << END_SHIFT | REPORTED | outcome
+    private AtomicLongArray seqs;
+    private AtomicLongArray calls;
+    // Every call before this one has been reported; only touched by the tick thread
+    private long oldestUnreported;
+
+    private RestClient callbackClient;
+    private ScheduledExecutorService tickExecutor;
+    private ExecutorService callbackExecutor;
+
+    @PostConstruct
+    public void start() {
+        triggerLatencyDistribution = DurationDistribution.parse(triggerLatency);
+        ringDistribution = DurationDistribution.parse(ringDuration);
+        talkDistribution = DurationDistribution.parse(talkDuration);
+        rejectDistribution = DurationDistribution.parse(rejectDuration);
+        parseOutcomes();
+
+        int capacity = Integer.highestOneBit(Math.max(2, maxTrackedCalls - 1)) << 1;
+        mask = capacity - 1;
+        seqs = new AtomicLongArray(capacity);
+        calls = new AtomicLongArray(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            seqs.set(slot, EMPTY);
+        }
+
+        if (pushesCallbacks()) {
+            callbackClient = RestClient.builder().baseUrl(callbackUrl).build();
+            callbackExecutor = Executors.newFixedThreadPool(callbackThreads, r -> new Thread(r, "mock-call-callbacks"));
+            tickExecutor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "mock-call-clock"));
+            tickExecutor.scheduleWithFixedDelay(this::reportFinishedCalls, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (tickExecutor != null) {
+            tickExecutor.shutdownNow();
+            callbackExecutor.shutdownNow();
+        }
+    }
 
     public String triggerCall(String phoneNumber) {
-        String callId = UUID.randomUUID().toString();
-        // Simulate initial status
-        callStore.put(callId, CallStatus.IN_PROGRESS);
-        
-        // Simulate async processing (in a real app this would be a callback or polling)
-        // For this mock, we'll just randomly determine the outcome when queried or after a delay
-        // But to keep it simple for the "check status" API, we can just return a random status if enough time has passed
-        // Or better, let's just store it.
-        
-        return callId;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        simulateLatency(random);
+
+        int outcome = randomOutcome(random);
+        FailureReason reason = outcomeReasons[outcome];
+        long duration = reason == null
+                ? ringDistribution.sample(random) + talkDistribution.sample(random)
+                : reason == FailureReason.NO_ANSWER ? ringDistribution.sample(random) : rejectDistribution.sample(random);
+        long state = ((now() + duration) << END_SHIFT) | outcome;
+
+        long seq = reserveSeq();
+        int slot = (int) (seq & mask);
+        // Readers of the previous call in this slot see it disappear before its state is replaced
+        seqs.set(slot, EMPTY);
+        calls.set(slot, state);
+        seqs.set(slot, seq);
+        return idPrefix + seq;
     }
 
     public CallStatus getCallStatus(String callId) {
-        if (!callStore.containsKey(callId)) {
+        long seq = parseSeq(callId);
+        if (seq < 0) {
             return null;
         }
-        
-        // Simulate status change over time
-        // For simplicity, let's just randomly return COMPLETED or FAILED if it's IN_PROGRESS
-        // In a real mock, we might want to control this better, but random is fine for now.
-        CallStatus currentStatus = callStore.get(callId);
-        if (currentStatus == CallStatus.IN_PROGRESS) {
-             // 80% success rate
-            if (ThreadLocalRandom.current().nextInt(100) < 80) {
-                currentStatus = CallStatus.COMPLETED;
-            } else {
-                currentStatus = CallStatus.FAILED;
+        int slot = (int) (seq & mask);
+        if (seqs.get(slot) != seq) {
+            return null;
+        }
+        long state = calls.get(slot);
+        if (seqs.get(slot) != seq) {
+            // Reused while being read
+            return null;
+        }
+        if ((state >> END_SHIFT) > now()) {
+            return CallStatus.IN_PROGRESS;
+        }
+        return outcomeReasons[(int) (state & OUTCOME_MASK)] == null ? CallStatus.COMPLETED : CallStatus.FAILED;
+    }
+
+    // Takes the next sequence number, as long as the call it replaces in the ring is done
+    private long reserveSeq() {
+        while (true) {
+            long seq = nextSeq.get();
+            long previous = seq - (mask + 1);
+            if (previous >= 0 && !isDone((int) (seq & mask), previous)) {
+                throw new IllegalStateException("Simulated provider at capacity: " + (mask + 1) + " calls in progress");
+            }
+            if (nextSeq.compareAndSet(seq, seq + 1)) {
+                return seq;
+            }
+        }
+    }
+
+    private boolean isDone(int slot, long seq) {
+        if (seqs.get(slot) != seq) {
+            // Still being written
+            return false;
+        }
+        long state = calls.get(slot);
+        return (state >> END_SHIFT) <= now() && (!pushesCallbacks() || (state & REPORTED) != 0);
+    }
+
+    void reportFinishedCalls() {
+        try {
+            long end = nextSeq.get();
+            long now = now();
+            boolean allReported = true;
+            for (long seq = oldestUnreported; seq < end; seq++) {
+                int slot = (int) (seq & mask);
+                long slotSeq = seqs.get(slot);
+                long state = calls.get(slot);
+                if (slotSeq != seq || seqs.get(slot) != seq) {
+                    // A slot is only reused after its call was reported; otherwise it's still being written
+                    if (slotSeq <= seq) {
+                        allReported = false;
+                    }
+                    continue;
+                }
+                if ((state & REPORTED) == 0) {
+                    if ((state >> END_SHIFT) > now) {
+                        allReported = false;
+                        continue;
+                    }
+                    calls.set(slot, state | REPORTED);
+                    int outcome = (int) (state & OUTCOME_MASK);
+                    String callId = idPrefix + seq;
+                    callbackExecutor.execute(() -> sendCallback(callId, outcomeReasons[outcome]));
+                }
+                if (allReported) {
+                    oldestUnreported = seq + 1;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to report finished calls", e);
+        }
+    }
+
+    private void sendCallback(String callId, FailureReason reason) {
+        Map<String, Object> event = new HashMap<>(Map.of(
+                "status", reason == null ? CallStatus.COMPLETED : CallStatus.FAILED,
+                "occurredAt", Instant.now()));
+        if (reason != null) {
+            event.put("failureReason", reason);
+        }
+        try {
+            callbackClient.post()
+                    .uri("/calls/{id}/events", callId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(event)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientException e) {
+            // The reconciling poll picks the outcome up later
+            log.warn("Failed to deliver callback for call {}: {}", callId, e.getMessage());
+        }
+    }
+
+    private void parseOutcomes() {
+        String[] entries = outcomes.split(",");
+        outcomeReasons = new FailureReason[entries.length];
+        outcomeWeights = new int[entries.length];
+        if (entries.length > OUTCOME_MASK + 1) {
+            throw new IllegalArgumentException("Too many simulated outcomes: " + outcomes);
+        }
+        totalWeight = 0;
+        for (int i = 0; i < entries.length; i++) {
+            String[] entry = entries[i].trim().split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Invalid simulated outcome: " + entries[i]);
             }
-            callStore.put(callId, currentStatus);
+            String name = entry[0].trim();
+            outcomeReasons[i] = name.equals(CallStatus.COMPLETED.name()) ? null : FailureReason.valueOf(name);
+            totalWeight += Integer.parseInt(entry[1].trim());
+            outcomeWeights[i] = totalWeight;
+        }
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Simulated outcomes need a positive weight: " + outcomes);
+        }
+    }
+
+    private int randomOutcome(ThreadLocalRandom random) {
+        int draw = random.nextInt(totalWeight);
+        int outcome = 0;
+        while (draw >= outcomeWeights[outcome]) {
+            outcome++;
+        }
+        return outcome;
+    }
+
+    private long parseSeq(String callId) {
+        if (callId == null || !callId.startsWith(idPrefix)) {
+            return -1;
+        }
+        try {
+            long seq = Long.parseLong(callId, idPrefix.length(), callId.length(), 10);
+            return seq < nextSeq.get() ? seq : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private long now() {
+        return System.currentTimeMillis() - startedAt;
+    }
+
+    private boolean pushesCallbacks() {
+        return callbackUrl != null && !callbackUrl.isBlank();
+    }
+
+    private void simulateLatency(ThreadLocalRandom random) {
+        long latency = triggerLatencyDistribution.sample(random);
+        if (latency <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while placing call", e);
         }
-        
-        return currentStatus;
     }
 }
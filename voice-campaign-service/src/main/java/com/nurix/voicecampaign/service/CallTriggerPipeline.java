@@ -0,0 +1,309 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.FailureReason;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Second and third stage of dispatch: places provider requests for reserved calls
+ * concurrently and writes the outcomes back in batches.
+ * <p>
+ * Requests run on a pool of {@code campaign.dispatch.max-in-flight-triggers} threads;
+ * once that many are in flight {@link #submit} blocks the dispatcher, so a slow provider
+ * applies backpressure instead of queueing work without bound. Call ids and trigger
+ * failures are collected in a queue and flushed every
+ * {@code campaign.dispatch.write-back-interval-ms} with JDBC batch updates, so no database
+ * transaction is held open while waiting on the provider. Attempts the provider refused
+ * end here and go to {@link CallAttemptLog}.
+ * <p>
+ * Before each request the call has to pass {@link CallRateLimiter}. A call it refuses
+ * keeps its reservation and is deferred until the limiter expects capacity; deferred
+ * calls don't occupy a trigger thread meanwhile. If the claim lease would run out during
+ * the deferral, it is extended first by another {@code campaign.cluster.claim-lease-ms},
+ * so {@link StuckCallReaper} never fails a call that was only deferred. Only a call whose
+ * lease can't be extended, because the reaper got to it first, is dropped. A placed call's lease is
+ * extended to {@code campaign.reaper.max-call-duration-ms}, after which the reaper checks
+ * it with the provider.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CallTriggerPipeline {
+
+    private final CallService callService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CallRateLimiter callRateLimiter;
+    private final RetryScheduler retryScheduler;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+    private final InstanceIdentity instanceIdentity;
+    private final CallAttemptLog callAttemptLog;
+    private final MeterRegistry meterRegistry;
+
+    private static final long RESUME_RETRY_MS = 10;
+
+    @Value("${campaign.dispatch.max-in-flight-triggers:64}")
+    private int maxInFlightTriggers;
+
+    @Value("${campaign.dispatch.write-back-interval-ms:100}")
+    private long writeBackIntervalMs;
+
+    @Value("${campaign.dispatch.write-back-batch-size:500}")
+    private int writeBackBatchSize;
+
+    @Value("${campaign.reaper.max-call-duration-ms:600000}")
+    private long maxCallDurationMs;
+
+    @Value("${campaign.cluster.claim-lease-ms:60000}")
+    private long claimLeaseMs;
+
+    private final Queue<TriggerResult> results = new ConcurrentLinkedQueue<>();
+
+    private Semaphore inFlight;
+    private ExecutorService triggerExecutor;
+    private ScheduledExecutorService writeBackExecutor;
+    private ScheduledExecutorService deferExecutor;
+    private final AtomicInteger deferredCalls = new AtomicInteger();
+    private Timer triggerSucceeded;
+    private Timer triggerFailed;
+
+    @PostConstruct
+    public void start() {
+        // Fair, so campaigns dispatched in parallel get provider capacity in the order they asked for it
+        inFlight = new Semaphore(maxInFlightTriggers, true);
+        AtomicInteger threadCount = new AtomicInteger();
+        triggerExecutor = Executors.newFixedThreadPool(maxInFlightTriggers,
+                r -> new Thread(r, "call-trigger-" + threadCount.incrementAndGet()));
+        writeBackExecutor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "call-write-back"));
+        writeBackExecutor.scheduleWithFixedDelay(this::flush, writeBackIntervalMs, writeBackIntervalMs, TimeUnit.MILLISECONDS);
+        deferExecutor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "call-defer"));
+        triggerSucceeded = triggerTimer("success");
+        triggerFailed = triggerTimer("failure");
+        Gauge.builder("call.trigger.deferred", deferredCalls, AtomicInteger::get)
+                .description("Reserved calls waiting for the rate limiter")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        deferExecutor.shutdownNow();
+        triggerExecutor.shutdown();
+        triggerExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        writeBackExecutor.shutdown();
+        writeBackExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public void submit(List<ReservedCall> calls) {
+        for (ReservedCall call : calls) {
+            inFlight.acquireUninterruptibly();
+            try {
+                triggerExecutor.execute(() -> trigger(call, false));
+            } catch (RuntimeException e) {
+                inFlight.release();
+                results.add(new TriggerResult(call, null));
+                log.error("Could not submit call for number {}", call.number(), e);
+            }
+        }
+    }
+
+    private void trigger(ReservedCall call, boolean resumed) {
+        long deferNanos = callRateLimiter.tryAcquire(call, resumed);
+        if (deferNanos > 0) {
+            inFlight.release();
+            defer(call, deferNanos);
+            return;
+        }
+
+        String callId = null;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            log.debug("Triggering call for number {} in campaign {}", call.number(), call.campaignId());
+            callId = callService.triggerCall(call.number());
+        } catch (Exception e) {
+            log.error("Failed to trigger call for {}", call.number(), e);
+        } finally {
+            long latencyNanos = sample.stop(callId != null ? triggerSucceeded : triggerFailed);
+            adaptiveConcurrencyLimiter.recordTrigger(call.campaignId(), latencyNanos);
+            inFlight.release();
+            results.add(new TriggerResult(call, callId));
+        }
+    }
+
+    private Timer triggerTimer(String outcome) {
+        return Timer.builder("call.trigger.latency")
+                .description("Provider round trip of CallService.triggerCall")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void defer(ReservedCall call, long deferNanos) {
+        ReservedCall deferred = call;
+        LocalDateTime resumeAt = LocalDateTime.now().plusNanos(deferNanos);
+        // Leaves the reaper a margin of half a lease
+        if (call.leaseExpiresAt() != null && resumeAt.plusNanos(claimLeaseMs * 500_000).isAfter(call.leaseExpiresAt())) {
+            deferred = extendLease(call, resumeAt.plusNanos(claimLeaseMs * 1_000_000));
+            if (deferred == null) {
+                log.warn("Claim on number {} was taken over while deferred by the rate limiter", call.phoneNumberId());
+                return;
+            }
+        }
+        ReservedCall resumed = deferred;
+        deferredCalls.incrementAndGet();
+        deferExecutor.schedule(() -> resume(resumed), deferNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Only while this reservation is still ours and unplaced
+    private ReservedCall extendLease(ReservedCall call, LocalDateTime leaseExpiresAt) {
+        try {
+            int updated = jdbcTemplate.update(
+                    "UPDATE phone_numbers SET lease_expires_at = ? WHERE id = ? AND status = 'IN_PROGRESS' " +
+                            "AND lease_owner = ? AND retries_attempted = ? AND lease_expires_at > ?",
+                    Timestamp.valueOf(leaseExpiresAt), call.phoneNumberId(), instanceIdentity.getId(), call.attempt(),
+                    Timestamp.valueOf(LocalDateTime.now()));
+            return updated > 0 ? call.withLeaseExpiresAt(leaseExpiresAt) : null;
+        } catch (RuntimeException e) {
+            // Deferred with the old lease; it is dropped if that runs out first
+            log.warn("Failed to extend the claim on number {}: {}", call.phoneNumberId(), e.getMessage());
+            return call;
+        }
+    }
+
+    private void resume(ReservedCall call) {
+        // Never block the defer thread on trigger capacity
+        if (!inFlight.tryAcquire()) {
+            deferExecutor.schedule(() -> resume(call), RESUME_RETRY_MS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        deferredCalls.decrementAndGet();
+        if (call.leaseExpiresAt() != null && LocalDateTime.now().isAfter(call.leaseExpiresAt())) {
+            inFlight.release();
+            log.warn("Claim on number {} expired while deferred by the rate limiter", call.phoneNumberId());
+            return;
+        }
+        try {
+            triggerExecutor.execute(() -> trigger(call, true));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the claim lease expires and the attempt is failed
+            inFlight.release();
+        }
+    }
+
+    void flush() {
+        while (!results.isEmpty()) {
+            List<TriggerResult> batch = new ArrayList<>(Math.min(writeBackBatchSize, results.size()));
+            TriggerResult result;
+            while (batch.size() < writeBackBatchSize && (result = results.poll()) != null) {
+                batch.add(result);
+            }
+            try {
+                transactionTemplate.executeWithoutResult(tx -> writeBack(batch));
+            } catch (RuntimeException e) {
+                // Retried on the next flush; the rows stay IN_PROGRESS until then
+                log.error("Failed to write back {} call results", batch.size(), e);
+                results.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    private void writeBack(List<TriggerResult> batch) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<TriggerResult> placed = batch.stream().filter(TriggerResult::placed).toList();
+        List<TriggerResult> failed = batch.stream().filter(result -> !result.placed()).toList();
+
+        // Callbacks and polls find the call by its id from now on. A call id the provider handed out
+        // twice is kept for the first call only, rather than failing the whole batch on every retry;
+        // the other number is reaped once its lease runs out.
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO in_flight_calls (external_call_id, campaign_id, phone_number_id, attempt, started_at) " +
+                        "SELECT ?, ?, ?, ?, CAST(? AS TIMESTAMP(6)) " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM in_flight_calls WHERE external_call_id = ?)",
+                placed, placed.size(), (ps, result) -> {
+                    ReservedCall call = result.call();
+                    ps.setString(1, result.callId());
+                    ps.setLong(2, call.campaignId());
+                    ps.setLong(3, call.phoneNumberId());
+                    ps.setInt(4, call.attempt());
+                    ps.setTimestamp(5, call.reservedAt() != null ? Timestamp.valueOf(call.reservedAt()) : null);
+                    ps.setString(6, result.callId());
+                });
+        // The claim lease becomes the call's lease, after which the reaper asks the provider about it
+        Timestamp callLeaseExpiresAt = new Timestamp(now.getTime() + maxCallDurationMs);
+        jdbcTemplate.batchUpdate(
+                "UPDATE phone_numbers SET lease_owner = NULL, lease_expires_at = ?, updated_at = ? WHERE id = ?",
+                placed, placed.size(), (ps, result) -> {
+                    ps.setTimestamp(1, callLeaseExpiresAt);
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, result.call().phoneNumberId());
+                });
+
+        List<FailedCall> failedCalls = failed.stream()
+                .map(result -> new FailedCall(result.call(), retryScheduler.nextAttemptAt(
+                        result.call().campaignId(), result.call().attempt(), FailureReason.PROVIDER_ERROR)))
+                .toList();
+        int[][] updated = jdbcTemplate.batchUpdate(
+                "UPDATE phone_numbers SET status = 'FAILED', failure_reason = 'PROVIDER_ERROR', next_attempt_at = ?, " +
+                        "lease_owner = NULL, lease_expires_at = NULL, updated_at = ? WHERE id = ? AND status = 'IN_PROGRESS'",
+                failedCalls, failedCalls.size(), (ps, failedCall) -> {
+                    ps.setTimestamp(1, failedCall.nextAttemptAt() != null ? Timestamp.valueOf(failedCall.nextAttemptAt()) : null);
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, failedCall.call().phoneNumberId());
+                });
+
+        List<CallAttempt> attempts = new ArrayList<>();
+        int index = 0;
+        for (int[] chunk : updated) {
+            for (int count : chunk) {
+                FailedCall failedCall = failedCalls.get(index++);
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    // Releases the slot and lets the dispatcher retry once this commits
+                    ReservedCall call = failedCall.call();
+                    eventPublisher.publishEvent(new CallStatusChangedEvent(call.campaignId(), call.phoneNumberId(),
+                            CallStatus.IN_PROGRESS, CallStatus.FAILED, failedCall.nextAttemptAt() != null));
+                    attempts.add(new CallAttempt(call.campaignId(), call.phoneNumberId(), call.attempt(), null,
+                            CallStatus.FAILED, FailureReason.PROVIDER_ERROR, call.reservedAt(), now.toLocalDateTime()));
+                }
+            }
+        }
+        callAttemptLog.append(attempts);
+    }
+
+    private record FailedCall(ReservedCall call, LocalDateTime nextAttemptAt) {
+    }
+
+    private record TriggerResult(ReservedCall call, String callId) {
+        boolean placed() {
+            return callId != null;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.repository.CallStatusCount;
+import com.nurix.voicecampaign.repository.PhoneNumberRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves the numbers of finished campaigns out of {@code phone_numbers}.
+ * <p>
+ * Every {@code campaign.archive.interval-ms} it picks the campaigns that have been
+ * {@code COMPLETED} for {@code campaign.archive.after-ms}. Claiming a campaign sets its
+ * {@code archived_at} and stores its call counts in {@code campaign_archives}, which is
+ * where {@link CampaignStatsCache} reads them from afterwards. The numbers are then moved in
+ * id order, {@code campaign.archive.chunk-size} at a time: each chunk is written as gzipped
+ * CSV to {@code phone_number_archive_chunks} and deleted from {@code phone_numbers} in the
+ * same transaction, so a run that stops halfway is picked up where it left off. Two
+ * instances archiving the same campaign collide on the chunk's key and one backs off.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignArchiver {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PhoneNumberRepository phoneNumberRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final CampaignStatsCache campaignStatsCache;
+
+    @Value("${campaign.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${campaign.archive.after-ms:604800000}")
+    private long archiveAfterMs;
+
+    @Value("${campaign.archive.chunk-size:10000}")
+    private int chunkSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.archive.interval-ms:3600000}", initialDelayString = "${campaign.archive.interval-ms:3600000}")
+    public void archiveCompletedCampaigns() {
+        if (!enabled) {
+            return;
+        }
+        Timestamp completedBefore = Timestamp.valueOf(LocalDateTime.now().minusNanos(archiveAfterMs * 1_000_000));
+        // Campaigns due for archival, and ones an earlier run didn't finish
+        List<Long> campaignIds = jdbcTemplate.queryForList(
+                "SELECT c.id FROM campaigns c WHERE (c.status = 'COMPLETED' AND c.archived_at IS NULL AND c.updated_at < ?) " +
+                        "OR (c.archived_at IS NOT NULL AND EXISTS (SELECT 1 FROM phone_numbers p WHERE p.campaign_id = c.id))",
+                Long.class, completedBefore);
+        for (Long campaignId : campaignIds) {
+            try {
+                archive(campaignId);
+            } catch (RuntimeException e) {
+                log.error("Failed to archive campaign {}", campaignId, e);
+            }
+        }
+    }
+
+    /**
+     * Archives a completed campaign, or finishes archiving one; returns how many numbers
+     * were moved, or -1 if the campaign isn't completed.
+     */
+    public long archive(Long campaignId) {
+        Boolean claimed = transactionTemplate.execute(tx -> claim(campaignId));
+        if (!Boolean.TRUE.equals(claimed)) {
+            return -1;
+        }
+        long moved = 0;
+        try {
+            int rows;
+            while ((rows = transactionTemplate.execute(tx -> archiveChunk(campaignId))) > 0) {
+                moved += rows;
+            }
+        } catch (DuplicateKeyException e) {
+            log.info("Campaign {} is being archived by another instance", campaignId);
+        } finally {
+            campaignStatsCache.evict(campaignId);
+        }
+        log.info("Archived {} numbers of campaign {}", moved, campaignId);
+        return moved;
+    }
+
+    private boolean claim(Long campaignId) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update(
+                "UPDATE campaigns SET archived_at = ?, version = version + 1 WHERE id = ? AND status = 'COMPLETED' AND archived_at IS NULL",
+                Timestamp.valueOf(now), campaignId);
+        if (updated == 0) {
+            // Claimed before, by this or another instance
+            Integer archived = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM campaigns WHERE id = ? AND archived_at IS NOT NULL", Integer.class, campaignId);
+            return archived != null && archived > 0;
+        }
+        long[] counts = new long[CallStatus.values().length];
+        for (CallStatusCount count : phoneNumberRepository.countByCampaignIdGroupByStatus(campaignId)) {
+            counts[count.getStatus().ordinal()] = count.getCount();
+        }
+        jdbcTemplate.update("INSERT INTO campaign_archives (campaign_id, pending_calls, in_progress_calls, completed_calls, " +
+                        "failed_calls, archived_at) VALUES (?, ?, ?, ?, ?, ?)",
+                campaignId, counts[CallStatus.PENDING.ordinal()], counts[CallStatus.IN_PROGRESS.ordinal()],
+                counts[CallStatus.COMPLETED.ordinal()], counts[CallStatus.FAILED.ordinal()], Timestamp.valueOf(now));
+        return true;
+    }
+
+    private int archiveChunk(Long campaignId) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        long[] ids = {Long.MAX_VALUE, Long.MIN_VALUE};
+        int[] rows = {0};
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(data), StandardCharsets.UTF_8)) {
+            jdbcTemplate.query("SELECT " + CallRecordService.EXPORT_COLUMNS + " FROM " + CallRecordService.EXPORT_FROM + " " +
+                    "WHERE p.campaign_id = ? ORDER BY p.id LIMIT ?", rs -> {
+                try {
+                    CallRecordService.writeCsvRow(rs, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                ids[0] = Math.min(ids[0], rs.getLong("id"));
+                ids[1] = Math.max(ids[1], rs.getLong("id"));
+                rows[0]++;
+            }, campaignId, chunkSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (rows[0] == 0) {
+            return 0;
+        }
+
+        Integer lastChunk = jdbcTemplate.queryForObject(
+                "SELECT MAX(chunk_no) FROM phone_number_archive_chunks WHERE campaign_id = ?", Integer.class, campaignId);
+        jdbcTemplate.update("INSERT INTO phone_number_archive_chunks (campaign_id, chunk_no, first_id, last_id, row_count, data) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                campaignId, lastChunk != null ? lastChunk + 1 : 0, ids[0], ids[1], rows[0], data.toByteArray());
+        int deleted = jdbcTemplate.update("DELETE FROM phone_numbers WHERE campaign_id = ? AND id BETWEEN ? AND ?",
+                campaignId, ids[0], ids[1]);
+        if (deleted != rows[0]) {
+            // Rolls the chunk back; the next run tries again
+            throw new IllegalStateException("Numbers of campaign " + campaignId + " changed while being archived");
+        }
+        return rows[0];
+    }
+}
@@ -0,0 +1,349 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.event.RetryDueEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import com.nurix.voicecampaign.repository.CampaignRepository;
+import com.nurix.voicecampaign.repository.DispatchCandidate;
+import com.nurix.voicecampaign.repository.PhoneNumberRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Places calls for running campaigns.
+ * <p>
+ * Each dispatch reserves eligible numbers (marks them IN_PROGRESS) in a short
+ * transaction and hands them to {@link CallTriggerPipeline}, which calls the provider
+ * concurrently and writes the call ids back in batches.
+ * <p>
+ * Dispatch is driven by events: a campaign is dispatched as soon as it is started and
+ * again whenever one of its calls leaves IN_PROGRESS, so a freed slot is refilled
+ * immediately instead of waiting for the next scheduler tick. {@link CampaignScheduler}
+ * only sweeps running campaigns periodically as a safety net.
+ * <p>
+ * Campaigns are dispatched in parallel on {@code campaign.dispatch.parallelism} threads,
+ * so a slow campaign doesn't hold up the others. Requests are coalesced per campaign and
+ * a campaign is never dispatched by two threads at once. Each dispatch reserves at most
+ * {@code campaign.dispatch.quantum} calls; a campaign with more free slots goes to the
+ * back of the queue for the rest. Since every call is the same unit of work, this is
+ * deficit round robin with a fixed quantum: a campaign with thousands of slots gets the
+ * same share of provider capacity per round as a small one, instead of filling the
+ * trigger pipeline ahead of it. Dispatch duration is recorded per campaign as the
+ * {@code campaign.dispatch.tick} timer. A campaign's dispatch state is dropped when it is
+ * paused or completed, and its meters when it completes.
+ * <p>
+ * A campaign's configuration is read from its {@link RunningCampaignRegistry} snapshot, so
+ * a dispatch round only queries for numbers. Numbers are claimed with
+ * {@code FOR UPDATE SKIP LOCKED} and stamped with a lease ({@code lease_owner},
+ * {@code lease_expires_at}), so instances sharing the database never reserve the same
+ * number. With {@code campaign.cluster.enabled} the campaign row is also locked for the
+ * duration of the reservation, and skipped unless it is still RUNNING, since another
+ * instance may have stopped it; free slots are then counted in the database
+ * instead of the instance-local {@link ConcurrencyLedger}, which keeps the concurrency
+ * limit across instances. With campaign leases only the lease holder dispatches a
+ * campaign (see {@link CampaignLeaseManager}).
+ * <p>
+ * Failed numbers become eligible again at the {@code next_attempt_at} set by
+ * {@link RetryScheduler}, which also requests a dispatch when near-term retries come due.
+ * <p>
+ * Business hours are looked up in {@link BusinessHoursCalendar}; requests for a campaign
+ * outside its hours are dropped without touching the database, and the scheduler
+ * dispatches the campaign when its next window opens.
+ * <p>
+ * The concurrency limit comes from {@link AdaptiveConcurrencyLimiter}, which is the
+ * campaign's configured limit unless adaptive pacing is on.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignDispatcher {
+
+    private final CampaignRepository campaignRepository;
+    private final RunningCampaignRegistry runningCampaignRegistry;
+    private final PhoneNumberRepository phoneNumberRepository;
+    private final ConcurrencyLedger concurrencyLedger;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+    private final CallTriggerPipeline callTriggerPipeline;
+    private final CampaignLeaseManager campaignLeaseManager;
+    private final BusinessHoursCalendar businessHoursCalendar;
+    private final InstanceIdentity instanceIdentity;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${campaign.dispatch.event-driven:true}")
+    private boolean eventDriven;
+
+    @Value("${campaign.dispatch.parallelism:4}")
+    private int parallelism;
+
+    @Value("${campaign.dispatch.quantum:100}")
+    private int quantum;
+
+    @Value("${campaign.cluster.enabled:false}")
+    private boolean clustered;
+
+    @Value("${campaign.cluster.claim-lease-ms:60000}")
+    private long claimLeaseMs;
+
+    private final Map<Long, DispatchState> dispatchStates = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism,
+                r -> new Thread(r, "campaign-dispatch-" + threadCount.incrementAndGet()));
+    }
+
+    /**
+     * Queues a dispatch for the campaign. Requests for a campaign that is already
+     * queued are merged into the pending one; requests arriving while it is being
+     * dispatched queue exactly one more dispatch.
+     */
+    public void requestDispatch(Long campaignId) {
+        // Campaigns outside their business hours are dispatched again when they open
+        if (!campaignLeaseManager.owns(campaignId) || businessHoursCalendar.isClosed(campaignId)) {
+            return;
+        }
+        DispatchState state = dispatchStates.computeIfAbsent(campaignId, id -> new DispatchState());
+        state.requested.set(true);
+        schedule(campaignId, state);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCallStatusChanged(CallStatusChangedEvent event) {
+        // A call leaving IN_PROGRESS frees a slot
+        if (event.previousStatus() == CallStatus.IN_PROGRESS) {
+            concurrencyLedger.release(event.campaignId(), 1);
+            if (eventDriven) {
+                requestDispatch(event.campaignId());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignStatusChanged(CampaignStatusChangedEvent event) {
+        if (eventDriven && event.newStatus() == CampaignStatus.RUNNING) {
+            requestDispatch(event.campaignId());
+        } else if (event.newStatus() == CampaignStatus.PAUSED || event.newStatus() == CampaignStatus.COMPLETED) {
+            // Recreated by the next request once the campaign runs again
+            dispatchStates.remove(event.campaignId());
+            if (event.newStatus() == CampaignStatus.COMPLETED) {
+                removeCampaignMeters(event.campaignId());
+            }
+        }
+    }
+
+    @EventListener
+    public void onRetryDue(RetryDueEvent event) {
+        requestDispatch(event.campaignId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void schedule(Long campaignId, DispatchState state) {
+        if (state.scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> runDispatch(campaignId, state));
+        }
+    }
+
+    private void runDispatch(Long campaignId, DispatchState state) {
+        // Cleared before running so that events arriving during this dispatch request another one
+        state.requested.set(false);
+        boolean quantumUsed = false;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            // Reserve in a short transaction; provider requests happen after it has committed
+            List<ReservedCall> reserved = transactionTemplate.execute(tx -> reserve(campaignId));
+            quantumUsed = reserved.size() >= quantum;
+            callTriggerPipeline.submit(reserved);
+        } catch (Exception e) {
+            log.error("Failed to dispatch campaign {}", campaignId, e);
+        } finally {
+            // A state dropped while the campaign was paused or completed isn't recorded or dispatched again,
+            // so the meters removed on completion aren't registered anew
+            boolean current = dispatchStates.get(campaignId) == state;
+            if (current) {
+                sample.stop(Timer.builder("campaign.dispatch.tick")
+                        .description("Time to reserve and hand over one round of calls for a campaign")
+                        .tag("campaign", campaignId.toString())
+                        .register(meterRegistry));
+            }
+            state.scheduled.set(false);
+            if (quantumUsed) {
+                // There may be more free slots; queue behind the other campaigns for them
+                state.requested.set(true);
+            }
+            if (state.requested.get() && current) {
+                schedule(campaignId, state);
+            }
+        }
+    }
+
+    /**
+     * Reserves the next round of calls for the campaign in the current transaction.
+     */
+    List<ReservedCall> reserve(Long campaignId) {
+        RunningCampaign campaign = runningCampaignRegistry.get(campaignId);
+        if (campaign == null) {
+            return List.of();
+        }
+        if (clustered && campaignRepository.findByIdForUpdate(campaignId)
+                .filter(locked -> locked.getStatus() == CampaignStatus.RUNNING)
+                .isEmpty()) {
+            return List.of();
+        }
+        return processCampaign(campaign);
+    }
+
+    private List<ReservedCall> processCampaign(RunningCampaign campaign) {
+        // 1. Check Business Hours
+        if (!businessHoursCalendar.isOpen(campaign)) {
+            log.debug("Campaign {} is outside business hours", campaign.id());
+            return List.of();
+        }
+
+        // 2. Check Concurrency (acquires the free slots from the in-memory ledger, or from the
+        // database when other instances dispatch too; the campaign row lock is held by then).
+        // With adaptive pacing the limit may be below the configured one while the carrier struggles.
+        int concurrencyLimit = adaptiveConcurrencyLimiter.limitFor(campaign);
+        List<ReservedCall> reserved = new ArrayList<>();
+        int slotsAvailable;
+        if (clustered) {
+            long inProgress = phoneNumberRepository.countByCampaignIdAndStatus(campaign.id(), CallStatus.IN_PROGRESS);
+            slotsAvailable = (int) Math.min(quantum, Math.max(0, concurrencyLimit - inProgress));
+        } else {
+            slotsAvailable = concurrencyLedger.tryAcquire(campaign.id(), concurrencyLimit, quantum);
+            releaseUnusedSlotsAfterCompletion(campaign.id(), slotsAvailable, reserved);
+        }
+
+        if (slotsAvailable == 0) {
+            log.debug("Campaign {} has reached concurrency limit ({})", campaign.id(), concurrencyLimit);
+            return List.of();
+        }
+        String campaignTag = campaign.id().toString();
+        Counter.builder("campaign.dispatch.slots.available")
+                .description("Free slots found by dispatch rounds")
+                .tag("campaign", campaignTag)
+                .register(meterRegistry)
+                .increment(slotsAvailable);
+
+        // 3. Claim Eligible Numbers (pending or due for a retry; rows locked by another dispatch are skipped)
+        LocalDateTime now = LocalDateTime.now();
+        List<DispatchCandidate> eligibleNumbers = phoneNumberRepository.findEligibleNumbers(
+                campaign.id(),
+                now,
+                slotsAvailable
+        );
+
+        if (eligibleNumbers.isEmpty()) {
+            // Completion is detected by CampaignProgressTracker as calls finish
+            log.debug("No eligible numbers for campaign {}", campaign.id());
+            return List.of();
+        }
+
+        Counter.builder("campaign.dispatch.slots.used")
+                .description("Free slots filled with a call by dispatch rounds")
+                .tag("campaign", campaignTag)
+                .register(meterRegistry)
+                .increment(eligibleNumbers.size());
+        Timer dispatchLag = Timer.builder("campaign.dispatch.lag")
+                .description("Time a number was dialable before it was reserved")
+                .tag("campaign", campaignTag)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        // 4. Reserve Calls (IN_PROGRESS immediately to hold the slot; the provider request follows the commit).
+        // One bulk update for the round; the claimed rows are already locked by this transaction.
+        LocalDateTime leaseExpiresAt = now.plus(Duration.ofMillis(claimLeaseMs));
+        List<Long> ids = new ArrayList<>(eligibleNumbers.size());
+        for (DispatchCandidate candidate : eligibleNumbers) {
+            recordDispatchLag(dispatchLag, campaign, candidate, now);
+            ids.add(candidate.getId());
+            reserved.add(new ReservedCall(candidate.getId(), campaign.id(), candidate.getNumber(),
+                    campaign.callerId(), leaseExpiresAt, candidate.getRetriesAttempted() + 1, now));
+            eventPublisher.publishEvent(new CallStatusChangedEvent(
+                    campaign.id(), candidate.getId(), candidate.getStatus(), CallStatus.IN_PROGRESS));
+        }
+        phoneNumberRepository.reserve(ids, now, instanceIdentity.getId(), leaseExpiresAt);
+        return reserved;
+    }
+
+    // A pending number became dialable when it was added or the campaign was last started, a failed one when its backoff ended
+    private void recordDispatchLag(Timer dispatchLag, RunningCampaign campaign, DispatchCandidate candidate, LocalDateTime now) {
+        boolean retry = candidate.getStatus() == CallStatus.FAILED;
+        LocalDateTime eligibleSince = retry ? candidate.getNextAttemptAt() : latest(candidate.getCreatedAt(), campaign.updatedAt());
+        if (eligibleSince != null) {
+            dispatchLag.record(Duration.between(eligibleSince, now));
+        }
+        Counter.builder("call.attempts")
+                .description("Calls reserved for dialling, first attempts and retries")
+                .tag("attempt", retry ? "retry" : "first")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        if (first == null || second == null) {
+            return first != null ? first : second;
+        }
+        return first.isAfter(second) ? first : second;
+    }
+
+    // Per-campaign meters would otherwise stay registered, one series each, for every campaign ever run
+    private void removeCampaignMeters(Long campaignId) {
+        for (String name : List.of("campaign.dispatch.tick", "campaign.dispatch.slots.available", "campaign.dispatch.slots.used",
+                "campaign.dispatch.lag")) {
+            meterRegistry.find(name).tag("campaign", campaignId.toString()).meters().forEach(meterRegistry::remove);
+        }
+    }
+
+    // Slots stay acquired only for calls that were reserved and committed
+    private void releaseUnusedSlotsAfterCompletion(Long campaignId, int slotsAcquired, List<ReservedCall> reserved) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                int unused = status == STATUS_COMMITTED ? slotsAcquired - reserved.size() : slotsAcquired;
+                concurrencyLedger.release(campaignId, unused);
+            }
+        });
+    }
+
+    private static class DispatchState {
+        // Queued on or running in the executor
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Another dispatch is needed
+        private final AtomicBoolean requested = new AtomicBoolean();
+    }
+}
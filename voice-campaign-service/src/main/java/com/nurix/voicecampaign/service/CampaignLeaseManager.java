@@ -0,0 +1,182 @@
+package com.nurix.voicecampaign.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optional assignment of running campaigns to instances ({@code campaign.cluster.campaign-leases}).
+ * <p>
+ * Every instance heartbeats in {@code cluster_members}, with or without leases. Without
+ * {@code campaign.cluster.enabled} each instance enforces concurrency limits from its own
+ * ledger, so an instance that sees other live members then logs a warning: together they
+ * would place more calls per campaign than its limit allows.
+ * <p>
+ * With leases, every instance also holds time-limited leases in
+ * {@code campaign_leases}. On each {@link #renew()} it extends its leases, gives back
+ * campaigns above its fair share (running campaigns divided by live instances, rounded
+ * up) so that a newly started instance gets work, and takes over campaigns whose lease
+ * is missing or expired. Only the lease holder dispatches a campaign, which keeps
+ * instances from contending for the same campaign row lock and claim queries.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignLeaseManager {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InstanceIdentity instanceIdentity;
+
+    @Value("${campaign.cluster.campaign-leases:false}")
+    private boolean enabled;
+
+    @Value("${campaign.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${campaign.cluster.campaign-lease-ms:15000}")
+    private long leaseMs;
+
+    private volatile Set<Long> owned = Set.of();
+
+    private volatile int liveMembers;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether this instance should dispatch the campaign. Always true without campaign leases.
+     */
+    public boolean owns(Long campaignId) {
+        return !enabled || owned.contains(campaignId);
+    }
+
+    /**
+     * Instances, this one included, that heartbeat in {@code cluster_members} as of the last {@link #heartbeat()}.
+     */
+    public int liveMembers() {
+        return liveMembers;
+    }
+
+    /**
+     * Renews this instance's heartbeat and counts the live members.
+     */
+    public int heartbeat() {
+        String me = instanceIdentity.getId();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp expiresAt = new Timestamp(now.getTime() + leaseMs);
+
+        if (jdbcTemplate.update("UPDATE cluster_members SET expires_at = ? WHERE instance_id = ?", expiresAt, me) == 0) {
+            jdbcTemplate.update("INSERT INTO cluster_members (instance_id, expires_at) VALUES (?, ?)", me, expiresAt);
+        }
+        Integer members = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cluster_members WHERE expires_at > ?", Integer.class, now);
+        int previous = liveMembers;
+        liveMembers = members != null ? members : 1;
+        // Once per change, not on every heartbeat
+        if (!clusterEnabled && liveMembers > 1 && liveMembers != previous) {
+            log.warn("{} instances share this database without campaign.cluster.enabled=true; each enforces "
+                    + "concurrency limits on its own, so campaigns can exceed their concurrencyLimit", liveMembers);
+        }
+        return liveMembers;
+    }
+
+    /**
+     * Renews the heartbeat and leases and rebalances.
+     *
+     * @return the campaigns this instance holds afterwards
+     */
+    public Set<Long> renew() {
+        String me = instanceIdentity.getId();
+        int members = heartbeat();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp expiresAt = new Timestamp(now.getTime() + leaseMs);
+
+        jdbcTemplate.update("UPDATE campaign_leases SET expires_at = ? WHERE owner = ?", expiresAt, me);
+
+        List<Long> running = jdbcTemplate.queryForList("SELECT id FROM campaigns WHERE status = 'RUNNING'", Long.class);
+        Map<Long, String> liveLeases = new HashMap<>();
+        jdbcTemplate.query("SELECT campaign_id, owner FROM campaign_leases WHERE expires_at > ?",
+                rs -> { liveLeases.put(rs.getLong("campaign_id"), rs.getString("owner")); }, now);
+        int fairShare = (running.size() + members - 1) / Math.max(1, members);
+
+        Set<Long> mine = new HashSet<>();
+        liveLeases.forEach((campaignId, owner) -> {
+            if (owner.equals(me)) {
+                mine.add(campaignId);
+            }
+        });
+        // Campaigns that stopped running don't count towards the share
+        for (Iterator<Long> it = mine.iterator(); it.hasNext(); ) {
+            Long campaignId = it.next();
+            if (!running.contains(campaignId)) {
+                release(campaignId);
+                it.remove();
+            }
+        }
+        for (Iterator<Long> it = mine.iterator(); it.hasNext() && mine.size() > fairShare; ) {
+            release(it.next());
+            it.remove();
+        }
+        for (Long campaignId : running) {
+            if (mine.size() >= fairShare) {
+                break;
+            }
+            if (!liveLeases.containsKey(campaignId) && tryTake(campaignId, now, expiresAt)) {
+                mine.add(campaignId);
+            }
+        }
+
+        if (!mine.equals(owned)) {
+            log.info("Instance {} now leases campaigns {}", me, mine);
+        }
+        owned = Set.copyOf(mine);
+        return owned;
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        owned = Set.of();
+        try {
+            // Lets the remaining instances take over without waiting for the leases to expire
+            if (enabled) {
+                jdbcTemplate.update("DELETE FROM campaign_leases WHERE owner = ?", instanceIdentity.getId());
+            }
+            jdbcTemplate.update("DELETE FROM cluster_members WHERE instance_id = ?", instanceIdentity.getId());
+        } catch (DataAccessException e) {
+            log.warn("Could not release campaign leases: {}", e.getMessage());
+        }
+    }
+
+    private boolean tryTake(Long campaignId, Timestamp now, Timestamp expiresAt) {
+        String me = instanceIdentity.getId();
+        if (jdbcTemplate.update("UPDATE campaign_leases SET owner = ?, expires_at = ? WHERE campaign_id = ? AND expires_at <= ?",
+                me, expiresAt, campaignId, now) > 0) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update("INSERT INTO campaign_leases (campaign_id, owner, expires_at) VALUES (?, ?, ?)",
+                    campaignId, me, expiresAt) > 0;
+        } catch (DuplicateKeyException e) {
+            // Another instance took it first
+            return false;
+        }
+    }
+
+    private void release(Long campaignId) {
+        jdbcTemplate.update("DELETE FROM campaign_leases WHERE campaign_id = ? AND owner = ?", campaignId, instanceIdentity.getId());
+    }
+}
@@ -0,0 +1,229 @@
+package com.nurix.voicecampaign.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nurix.voicecampaign.dto.CampaignProgressUpdate;
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.Campaign;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import com.nurix.voicecampaign.repository.CampaignRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes campaign progress to dashboards over Server-Sent Events.
+ * <p>
+ * Committed {@link CallStatusChangedEvent}s and {@link CampaignStatusChangedEvent}s are
+ * folded into one pending delta per campaign. Every {@code campaign.progress.push-interval-ms}
+ * a single thread turns each pending delta into one {@link CampaignProgressUpdate}, adds the
+ * current counts from {@link CampaignStatsCache}, serialises it once and writes it to every
+ * subscriber of that campaign. A campaign therefore produces at most one message per
+ * interval however many calls changed, and the database sees the same stats reads whether
+ * one dashboard is connected or a thousand. Subscribers that fail a write are dropped; idle
+ * streams get a comment every {@code campaign.progress.heartbeat-interval-ms} so dead
+ * connections are noticed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignProgressBroadcaster {
+
+    private final CampaignRepository campaignRepository;
+    private final CampaignStatsCache campaignStatsCache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${campaign.progress.push-interval-ms:1000}")
+    private long pushIntervalMs;
+
+    @Value("${campaign.progress.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${campaign.progress.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    private final Map<Long, PendingChange> pending = new ConcurrentHashMap<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService pushExecutor;
+    private long lastHeartbeat;
+
+    @PostConstruct
+    public void start() {
+        pushExecutor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "campaign-progress-push"));
+        pushExecutor.scheduleWithFixedDelay(this::push, pushIntervalMs, pushIntervalMs, TimeUnit.MILLISECONDS);
+        Gauge.builder("campaign.progress.subscribers", subscribers, List::size)
+                .description("Open campaign progress streams")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pushExecutor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Opens a stream of the given campaigns, or of all campaigns when {@code campaignIds} is
+     * empty. It starts with the current status and counts of each given campaign, or of the
+     * running campaigns.
+     */
+    public SseEmitter subscribe(Set<Long> campaignIds) {
+        List<Campaign> campaigns = campaignIds.isEmpty()
+                ? campaignRepository.findByStatus(CampaignStatus.RUNNING)
+                : campaignIds.stream()
+                        .map(id -> campaignRepository.findById(id).orElseThrow(() -> new RuntimeException("Campaign not found")))
+                        .toList();
+        List<String> initial = new ArrayList<>(campaigns.size());
+        for (Campaign campaign : campaigns) {
+            PendingChange current = new PendingChange();
+            current.status = campaign.getStatus();
+            initial.add(serialize(toUpdate(campaign.getId(), current)));
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(Set.copyOf(campaignIds), emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        for (String update : initial) {
+            send(subscriber, update);
+        }
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCallStatusChanged(CallStatusChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        pending.compute(event.campaignId(), (id, change) -> {
+            PendingChange updated = change != null ? change : new PendingChange();
+            updated.deltas[event.previousStatus().ordinal()]--;
+            updated.deltas[event.newStatus().ordinal()]++;
+            return updated;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignStatusChanged(CampaignStatusChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        pending.compute(event.campaignId(), (id, change) -> {
+            PendingChange updated = change != null ? change : new PendingChange();
+            updated.status = event.newStatus();
+            return updated;
+        });
+    }
+
+    void push() {
+        try {
+            for (Long campaignId : new ArrayList<>(pending.keySet())) {
+                PendingChange change = pending.remove(campaignId);
+                if (change != null) {
+                    broadcast(campaignId, serialize(toUpdate(campaignId, change)));
+                }
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastHeartbeat >= heartbeatIntervalMs) {
+                lastHeartbeat = now;
+                for (Subscriber subscriber : subscribers) {
+                    if (now - subscriber.lastSentAt >= heartbeatIntervalMs) {
+                        send(subscriber, null);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to push campaign progress", e);
+        }
+    }
+
+    private void broadcast(Long campaignId, String data) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.campaignIds.isEmpty() || subscriber.campaignIds.contains(campaignId)) {
+                send(subscriber, data);
+            }
+        }
+    }
+
+    // A null payload sends a heartbeat comment
+    private void send(Subscriber subscriber, String data) {
+        try {
+            subscriber.emitter.send(data != null
+                    ? SseEmitter.event().name("progress").data(data, MediaType.APPLICATION_JSON)
+                    : SseEmitter.event().comment("heartbeat"));
+            subscriber.lastSentAt = System.currentTimeMillis();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private CampaignProgressUpdate toUpdate(Long campaignId, PendingChange change) {
+        CampaignStats stats = campaignStatsCache.get(campaignId);
+        return CampaignProgressUpdate.builder()
+                .campaignId(campaignId)
+                .status(change.status)
+                .pendingDelta(change.deltas[CallStatus.PENDING.ordinal()])
+                .inProgressDelta(change.deltas[CallStatus.IN_PROGRESS.ordinal()])
+                .completedDelta(change.deltas[CallStatus.COMPLETED.ordinal()])
+                .failedDelta(change.deltas[CallStatus.FAILED.ordinal()])
+                .totalCalls(stats.total())
+                .completedCalls(stats.completed())
+                .failedCalls(stats.failed())
+                .pendingCalls(stats.pending())
+                .inProgressCalls(stats.inProgress())
+                .at(Instant.now())
+                .build();
+    }
+
+    private String serialize(CampaignProgressUpdate update) {
+        try {
+            return objectMapper.writeValueAsString(update);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class PendingChange {
+        private final long[] deltas = new long[CallStatus.values().length];
+        private CampaignStatus status;
+    }
+
+    private static final class Subscriber {
+        private final Set<Long> campaignIds;
+        private final SseEmitter emitter;
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        private Subscriber(Set<Long> campaignIds, SseEmitter emitter) {
+            this.campaignIds = campaignIds;
+            this.emitter = emitter;
+        }
+    }
+}
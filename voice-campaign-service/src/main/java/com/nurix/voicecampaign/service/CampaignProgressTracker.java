@@ -0,0 +1,134 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Completes running campaigns once they have no work left.
+ * <p>
+ * Keeps, per running campaign, the number of phone numbers that are still in progress or
+ * dispatchable (pending, or failed with a retry scheduled). The count is loaded with one
+ * query the first time a campaign's call finishes and then decremented by every committed
+ * {@link CallStatusChangedEvent} that ends a call for good: completed, or failed without a
+ * retry. When it reaches zero the campaign is moved to COMPLETED by a single update that
+ * re-checks the database, so a drifted count can only delay completion, never cause it; a
+ * campaign that turns out to have work left gets its count reloaded. Completed campaigns
+ * drop out of the running set and are no longer swept.
+ * <p>
+ * A campaign with nothing to dial never finishes a call, so completion is also checked
+ * when a campaign starts running and, for campaigns without a count, from the scheduler's
+ * sweep ({@link #checkCompletion}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignProgressTracker {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, AtomicLong> remaining = new ConcurrentHashMap<>();
+
+    private TransactionTemplate completionTransaction;
+
+    @PostConstruct
+    public void start() {
+        // Completion runs from after-commit listeners, so it needs a transaction of its own
+        completionTransaction = new TransactionTemplate(transactionManager);
+        completionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCallStatusChanged(CallStatusChangedEvent event) {
+        boolean finished = event.previousStatus() == CallStatus.IN_PROGRESS
+                && (event.newStatus() == CallStatus.COMPLETED || (event.newStatus() == CallStatus.FAILED && !event.retryScheduled()));
+        if (!finished) {
+            return;
+        }
+        AtomicLong count = remaining.get(event.campaignId());
+        long left;
+        if (count == null) {
+            // A freshly loaded count already excludes this call
+            left = countRemaining(event.campaignId());
+            remaining.putIfAbsent(event.campaignId(), new AtomicLong(left));
+        } else {
+            left = count.updateAndGet(value -> Math.max(0, value - 1));
+        }
+        if (left == 0) {
+            tryComplete(event.campaignId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignStatusChanged(CampaignStatusChangedEvent event) {
+        if (event.newStatus() != CampaignStatus.RUNNING) {
+            remaining.remove(event.campaignId());
+        } else {
+            // Started with every number already final, or none at all
+            tryComplete(event.campaignId());
+        }
+    }
+
+    /**
+     * Completes the running campaign if it has no work left. Campaigns whose count is
+     * loaded and above zero are skipped without a query.
+     */
+    public void checkCompletion(Long campaignId) {
+        AtomicLong count = remaining.get(campaignId);
+        if (count == null || count.get() == 0) {
+            tryComplete(campaignId);
+        }
+    }
+
+    /**
+     * Drops the campaign's count, e.g. after numbers were added to it.
+     */
+    public void evict(Long campaignId) {
+        remaining.remove(campaignId);
+    }
+
+    private void tryComplete(Long campaignId) {
+        Boolean completed = completionTransaction.execute(tx -> {
+            int updated = jdbcTemplate.update(
+                    "UPDATE campaigns SET status = 'COMPLETED', version = version + 1, updated_at = ? WHERE id = ? AND status = 'RUNNING' " +
+                            "AND NOT EXISTS (SELECT 1 FROM phone_numbers WHERE campaign_id = ? " +
+                            "AND (status = 'IN_PROGRESS' OR next_attempt_at IS NOT NULL))",
+                    new Timestamp(System.currentTimeMillis()), campaignId, campaignId);
+            if (updated > 0) {
+                eventPublisher.publishEvent(new CampaignStatusChangedEvent(campaignId, CampaignStatus.RUNNING, CampaignStatus.COMPLETED));
+            }
+            return updated > 0;
+        });
+        if (Boolean.TRUE.equals(completed)) {
+            log.info("Campaign {} completed", campaignId);
+        } else {
+            // Paused meanwhile, or the count had drifted
+            remaining.remove(campaignId);
+        }
+    }
+
+    private long countRemaining(Long campaignId) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM phone_numbers WHERE campaign_id = ? AND (status = 'IN_PROGRESS' OR next_attempt_at IS NOT NULL)",
+                Long.class, campaignId);
+        return count != null ? count : 0;
+    }
+}
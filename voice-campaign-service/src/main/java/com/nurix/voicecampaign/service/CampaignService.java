@@ -2,6 +2,7 @@ package com.nurix.voicecampaign.service;
 
 import com.nurix.voicecampaign.dto.CampaignRequest;
 import com.nurix.voicecampaign.dto.CampaignResponse;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
 import com.nurix.voicecampaign.model.CallStatus;
 import com.nurix.voicecampaign.model.Campaign;
 import com.nurix.voicecampaign.model.CampaignStatus;
@@ -10,17 +11,28 @@ import com.nurix.voicecampaign.repository.CampaignRepository;
 import com.nurix.voicecampaign.repository.PhoneNumberRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class CampaignService {
 
     private final CampaignRepository campaignRepository;
     private final PhoneNumberRepository phoneNumberRepository;
+    private final CampaignStatsCache campaignStatsCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PhoneNumberNormalizer phoneNumberNormalizer;
+    private final DoNotCallList doNotCallList;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+    private final RunningCampaignRegistry runningCampaignRegistry;
 
     @Transactional
     public CampaignResponse createCampaign(CampaignRequest request) {
@@ -30,26 +42,61 @@ public class CampaignService {
                 .startTime(request.getStartTime())
                 .endTime(request.getEndTime())
                 .timezone(request.getTimezone())
+                .businessHours(request.getBusinessHours() != null ? new ArrayList<>(request.getBusinessHours()) : new ArrayList<>())
+                .holidays(request.getHolidays() != null ? new HashSet<>(request.getHolidays()) : new HashSet<>())
+                .callerId(request.getCallerId())
                 .concurrencyLimit(request.getConcurrencyLimit() != null ? request.getConcurrencyLimit() : 10) // Default 10
                 .retryCount(request.getRetryCount() != null ? request.getRetryCount() : 3) // Default 3
+                .retryBackoff(request.getRetryBackoff())
+                .retryDelayMs(request.getRetryDelayMs())
+                .retryMaxDelayMs(request.getRetryMaxDelayMs())
                 .build();
 
         Campaign savedCampaign = campaignRepository.save(campaign);
 
-        List<PhoneNumber> phoneNumbers = request.getPhoneNumbers().stream()
-                .map(num -> PhoneNumber.builder()
-                        .number(num)
+        List<String> numbers = request.getPhoneNumbers() != null ? request.getPhoneNumbers() : List.of();
+        // Normalised to E.164; invalid, repeated and do-not-call numbers are left out
+        long[] normalized = new long[numbers.size()];
+        int valid = 0;
+        for (String number : numbers) {
+            long e164 = phoneNumberNormalizer.normalize(number);
+            if (e164 != PhoneNumberNormalizer.INVALID) {
+                normalized[valid++] = e164;
+            }
+        }
+        LongHashSet listed = doNotCallList.findListed(normalized, valid);
+        LongHashSet seen = new LongHashSet(valid);
+        List<PhoneNumber> phoneNumbers = new ArrayList<>(valid);
+        int suppressed = 0;
+        for (int i = 0; i < valid; i++) {
+            if (listed.contains(normalized[i])) {
+                suppressed++;
+            } else if (seen.add(normalized[i])) {
+                phoneNumbers.add(PhoneNumber.builder()
+                        .number(PhoneNumberNormalizer.format(normalized[i]))
                         .status(CallStatus.PENDING)
                         .campaign(savedCampaign)
                         .retriesAttempted(0)
-                        .build())
-                .collect(Collectors.toList());
+                        .build());
+            }
+        }
+        int rejected = numbers.size() - valid;
+        int duplicate = valid - suppressed - phoneNumbers.size();
+        if (phoneNumbers.size() < numbers.size()) {
+            log.info("Campaign {}: {} numbers added, {} invalid, {} on the do-not-call list, {} duplicate", savedCampaign.getId(),
+                    phoneNumbers.size(), rejected, suppressed, duplicate);
+        }
 
         phoneNumberRepository.saveAll(phoneNumbers);
 
-        return mapToResponse(savedCampaign);
+        CampaignResponse response = mapToResponse(savedCampaign);
+        response.setRecordsRejected((long) rejected);
+        response.setNumbersDuplicate((long) duplicate);
+        response.setNumbersSuppressed((long) suppressed);
+        return response;
     }
 
+    @Transactional
     public CampaignResponse getCampaign(Long id) {
         Campaign campaign = campaignRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Campaign not found"));
@@ -61,9 +108,15 @@ public class CampaignService {
         Campaign campaign = campaignRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Campaign not found"));
         
-        if (campaign.getStatus() == CampaignStatus.PENDING || campaign.getStatus() == CampaignStatus.PAUSED) {
+        // A completed campaign can be restarted after more numbers were added, until it is archived
+        if (campaign.getStatus() == CampaignStatus.PENDING || campaign.getStatus() == CampaignStatus.PAUSED
+                || (campaign.getStatus() == CampaignStatus.COMPLETED && campaign.getArchivedAt() == null)) {
+            CampaignStatus previousStatus = campaign.getStatus();
             campaign.setStatus(CampaignStatus.RUNNING);
-            campaignRepository.save(campaign);
+            // Flushed so the registry's snapshot carries the new version
+            campaignRepository.saveAndFlush(campaign);
+            runningCampaignRegistry.put(campaign);
+            eventPublisher.publishEvent(new CampaignStatusChangedEvent(campaign.getId(), previousStatus, CampaignStatus.RUNNING));
         }
         return mapToResponse(campaign);
     }
@@ -76,25 +129,14 @@ public class CampaignService {
         if (campaign.getStatus() == CampaignStatus.RUNNING) {
             campaign.setStatus(CampaignStatus.PAUSED);
             campaignRepository.save(campaign);
+            runningCampaignRegistry.remove(campaign.getId());
+            eventPublisher.publishEvent(new CampaignStatusChangedEvent(campaign.getId(), CampaignStatus.RUNNING, CampaignStatus.PAUSED));
         }
         return mapToResponse(campaign);
     }
 
     private CampaignResponse mapToResponse(Campaign campaign) {
-        long total = phoneNumberRepository.countByCampaignIdAndStatus(campaign.getId(), null); // This might need a custom query or just count all
-        // Actually countByCampaignIdAndStatus with null status might not work as expected in JPA derived queries depending on impl.
-        // Better to use countByCampaignId if I added it, or just sum up.
-        // Let's add countByCampaignId to repo or just use the list if lazy loading isn't an issue (it is).
-        // For now, let's assume we want accurate stats.
-        
-        long completed = phoneNumberRepository.countByCampaignIdAndStatus(campaign.getId(), CallStatus.COMPLETED);
-        long failed = phoneNumberRepository.countByCampaignIdAndStatus(campaign.getId(), CallStatus.FAILED);
-        long pending = phoneNumberRepository.countByCampaignIdAndStatus(campaign.getId(), CallStatus.PENDING);
-        long inProgress = phoneNumberRepository.countByCampaignIdAndStatus(campaign.getId(), CallStatus.IN_PROGRESS);
-        
-        // Total is sum of all (or just count all by campaign id)
-        // I'll add countByCampaignId to the repo in a bit, or just sum these up for now.
-        long totalCalculated = completed + failed + pending + inProgress;
+        CampaignStats stats = campaignStatsCache.get(campaign.getId());
 
         return CampaignResponse.builder()
                 .id(campaign.getId())
@@ -103,14 +145,22 @@ public class CampaignService {
                 .startTime(campaign.getStartTime())
                 .endTime(campaign.getEndTime())
                 .timezone(campaign.getTimezone())
+                .businessHours(List.copyOf(campaign.getBusinessHours()))
+                .holidays(Set.copyOf(campaign.getHolidays()))
+                .callerId(campaign.getCallerId())
                 .concurrencyLimit(campaign.getConcurrencyLimit())
+                .effectiveConcurrencyLimit(adaptiveConcurrencyLimiter.currentLimit(campaign))
                 .retryCount(campaign.getRetryCount())
+                .retryBackoff(campaign.getRetryBackoff())
+                .retryDelayMs(campaign.getRetryDelayMs())
+                .retryMaxDelayMs(campaign.getRetryMaxDelayMs())
                 .createdAt(campaign.getCreatedAt())
-                .totalCalls(totalCalculated)
-                .completedCalls(completed)
-                .failedCalls(failed)
-                .pendingCalls(pending)
-                .inProgressCalls(inProgress)
+                .archivedAt(campaign.getArchivedAt())
+                .totalCalls(stats.total())
+                .completedCalls(stats.completed())
+                .failedCalls(stats.failed())
+                .pendingCalls(stats.pending())
+                .inProgressCalls(stats.inProgress())
                 .build();
     }
 }
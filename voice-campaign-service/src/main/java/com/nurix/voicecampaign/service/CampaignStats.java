@@ -0,0 +1,11 @@
+package com.nurix.voicecampaign.service;
+
+/**
+ * Point-in-time call counts of a campaign.
+ */
+public record CampaignStats(long pending, long inProgress, long completed, long failed) {
+
+    public long total() {
+        return pending + inProgress + completed + failed;
+    }
+}
@@ -0,0 +1,116 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.CampaignArchive;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import com.nurix.voicecampaign.repository.CallStatusCount;
+import com.nurix.voicecampaign.repository.CampaignArchiveRepository;
+import com.nurix.voicecampaign.repository.PhoneNumberRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory per-campaign call counts backing {@code CampaignResponse}.
+ * <p>
+ * A campaign's counts are loaded with one GROUP BY status query on first read and then
+ * kept current by applying every committed {@link CallStatusChangedEvent}, so reads don't
+ * touch the database and don't depend on campaign size. Entries are reloaded after
+ * {@code campaign.stats.refresh-interval-ms} to pick up changes this instance can't see,
+ * such as rows written by another instance, and evicted when numbers are added or the
+ * campaign completes. Entries that are due for a reload are swept out on the same
+ * interval, so only campaigns read recently are held. Archived
+ * campaigns (those with a {@code campaign_archives} row, written in the same transaction
+ * that sets {@code archived_at}) report the counts stored there, so they keep the counts
+ * they had even while an interrupted archival has only moved part of their numbers.
+ */
+@Component
+@RequiredArgsConstructor
+public class CampaignStatsCache {
+
+    private final PhoneNumberRepository phoneNumberRepository;
+    private final CampaignArchiveRepository campaignArchiveRepository;
+
+    @Value("${campaign.stats.refresh-interval-ms:30000}")
+    private long refreshIntervalMs;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public CampaignStats get(Long campaignId) {
+        Entry entry = entries.get(campaignId);
+        if (entry == null || System.currentTimeMillis() - entry.loadedAt > refreshIntervalMs) {
+            entry = load(campaignId);
+            entries.put(campaignId, entry);
+        }
+        return entry.snapshot();
+    }
+
+    public void evict(Long campaignId) {
+        entries.remove(campaignId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignStatusChanged(CampaignStatusChangedEvent event) {
+        if (event.newStatus() == CampaignStatus.COMPLETED) {
+            entries.remove(event.campaignId());
+        }
+    }
+
+    // Stale entries would be reloaded on their next read anyway
+    @Scheduled(fixedDelayString = "${campaign.stats.refresh-interval-ms:30000}")
+    public void evictStale() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> now - entry.loadedAt > refreshIntervalMs);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCallStatusChanged(CallStatusChangedEvent event) {
+        Entry entry = entries.get(event.campaignId());
+        if (entry != null) {
+            entry.counts.decrementAndGet(event.previousStatus().ordinal());
+            entry.counts.incrementAndGet(event.newStatus().ordinal());
+        }
+    }
+
+    private Entry load(Long campaignId) {
+        Entry entry = new Entry(System.currentTimeMillis());
+        Optional<CampaignArchive> archive = campaignArchiveRepository.findById(campaignId);
+        if (archive.isPresent()) {
+            entry.counts.set(CallStatus.PENDING.ordinal(), archive.get().getPendingCalls());
+            entry.counts.set(CallStatus.IN_PROGRESS.ordinal(), archive.get().getInProgressCalls());
+            entry.counts.set(CallStatus.COMPLETED.ordinal(), archive.get().getCompletedCalls());
+            entry.counts.set(CallStatus.FAILED.ordinal(), archive.get().getFailedCalls());
+            return entry;
+        }
+        for (CallStatusCount count : phoneNumberRepository.countByCampaignIdGroupByStatus(campaignId)) {
+            entry.counts.set(count.getStatus().ordinal(), count.getCount());
+        }
+        return entry;
+    }
+
+    private static final class Entry {
+        private final AtomicLongArray counts = new AtomicLongArray(CallStatus.values().length);
+        private final long loadedAt;
+
+        private Entry(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        private CampaignStats snapshot() {
+            return new CampaignStats(
+                    counts.get(CallStatus.PENDING.ordinal()),
+                    counts.get(CallStatus.IN_PROGRESS.ordinal()),
+                    counts.get(CallStatus.COMPLETED.ordinal()),
+                    counts.get(CallStatus.FAILED.ordinal()));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.dto.LedgerDriftResponse;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.repository.CampaignCallCount;
+import com.nurix.voicecampaign.repository.PhoneNumberRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory count of in-flight (IN_PROGRESS) calls per campaign.
+ * <p>
+ * Slots are acquired by the dispatcher before it reserves numbers and released when a
+ * call leaves IN_PROGRESS, so admission is a CAS on an atomic counter instead of a
+ * COUNT(*) over phone_numbers. The ledger is rebuilt from the database with one
+ * grouped query on startup and periodically reconciled against it to correct drift,
+ * e.g. from a transaction that failed between reserving and releasing a slot.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConcurrencyLedger {
+
+    private final PhoneNumberRepository phoneNumberRepository;
+
+    private final Map<Long, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    // Drift seen by the previous reconcile run, only corrected if it is still there on the next one
+    private final Map<Long, Integer> suspectedDrift = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Long, Long> counts = loadInFlightCounts();
+        inFlight.clear();
+        counts.forEach((campaignId, count) -> inFlight.put(campaignId, new AtomicInteger(count.intValue())));
+        log.info("Concurrency ledger rebuilt for {} campaigns", counts.size());
+    }
+
+    public int inFlight(Long campaignId) {
+        AtomicInteger counter = inFlight.get(campaignId);
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * Acquires every free slot of the campaign up to {@code limit}.
+     *
+     * @return the number of slots acquired, possibly 0
+     */
+    public int tryAcquire(Long campaignId, int limit) {
+        return tryAcquire(campaignId, limit, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Acquires free slots of the campaign up to {@code limit}, but no more than {@code max}.
+     *
+     * @return the number of slots acquired, possibly 0
+     */
+    public int tryAcquire(Long campaignId, int limit, int max) {
+        AtomicInteger counter = counter(campaignId);
+        while (true) {
+            int current = counter.get();
+            int available = Math.min(max, limit - current);
+            if (available <= 0) {
+                return 0;
+            }
+            if (counter.compareAndSet(current, current + available)) {
+                return available;
+            }
+        }
+    }
+
+    public void release(Long campaignId, int slots) {
+        if (slots <= 0) {
+            return;
+        }
+        AtomicInteger counter = counter(campaignId);
+        // Never go negative; a release without a matching acquire is drift that reconcile will fix
+        counter.getAndUpdate(current -> Math.max(0, current - slots));
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.ledger.reconcile-interval-ms:60000}",
+            initialDelayString = "${campaign.ledger.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        reconcile(false);
+    }
+
+    /**
+     * Compares the ledger with the IN_PROGRESS counts in the database and corrects
+     * campaigns whose count didn't change while the database was being read.
+     * Unless {@code force} is set, a difference is only corrected once it has been seen
+     * by two consecutive runs, because a single observation is usually a dispatch that
+     * had acquired slots but not yet committed its reservations.
+     *
+     * @return the ledger and database counts for every campaign that was corrected
+     */
+    public List<LedgerDriftResponse> reconcile(boolean force) {
+        Map<Long, Integer> before = snapshot();
+        Map<Long, Long> actual = loadInFlightCounts();
+        Map<Long, Integer> after = snapshot();
+
+        Set<Long> campaignIds = new HashSet<>(before.keySet());
+        campaignIds.addAll(actual.keySet());
+
+        List<LedgerDriftResponse> corrections = new ArrayList<>();
+        for (Long campaignId : campaignIds) {
+            int ledgerCount = before.getOrDefault(campaignId, 0);
+            int dbCount = actual.getOrDefault(campaignId, 0L).intValue();
+            int drift = dbCount - ledgerCount;
+
+            if (drift == 0 || ledgerCount != after.getOrDefault(campaignId, 0)) {
+                suspectedDrift.remove(campaignId);
+                continue;
+            }
+
+            Integer previousDrift = suspectedDrift.put(campaignId, drift);
+            boolean confirmed = force || (previousDrift != null && previousDrift == drift);
+            if (confirmed && counter(campaignId).compareAndSet(ledgerCount, dbCount)) {
+                log.warn("Corrected concurrency ledger for campaign {}: {} -> {}", campaignId, ledgerCount, dbCount);
+                suspectedDrift.remove(campaignId);
+                corrections.add(toResponse(campaignId, ledgerCount, dbCount));
+            }
+        }
+        return corrections;
+    }
+
+    /**
+     * Current ledger and database counts side by side, for diagnostics.
+     */
+    public List<LedgerDriftResponse> compareWithDatabase() {
+        Map<Long, Integer> ledger = snapshot();
+        Map<Long, Long> actual = loadInFlightCounts();
+        Set<Long> campaignIds = new TreeSet<>(ledger.keySet());
+        campaignIds.addAll(actual.keySet());
+        return campaignIds.stream()
+                .map(id -> toResponse(id, ledger.getOrDefault(id, 0), actual.getOrDefault(id, 0L).intValue()))
+                .collect(Collectors.toList());
+    }
+
+    private AtomicInteger counter(Long campaignId) {
+        return inFlight.computeIfAbsent(campaignId, id -> new AtomicInteger());
+    }
+
+    private Map<Long, Integer> snapshot() {
+        Map<Long, Integer> snapshot = new HashMap<>();
+        inFlight.forEach((campaignId, counter) -> snapshot.put(campaignId, counter.get()));
+        return snapshot;
+    }
+
+    private LedgerDriftResponse toResponse(Long campaignId, int ledgerCount, int dbCount) {
+        return LedgerDriftResponse.builder()
+                .campaignId(campaignId)
+                .ledgerInFlight(ledgerCount)
+                .databaseInFlight(dbCount)
+                .build();
+    }
+
+    private Map<Long, Long> loadInFlightCounts() {
+        return phoneNumberRepository.countByStatusGroupByCampaign(CallStatus.IN_PROGRESS).stream()
+                .collect(Collectors.toMap(CampaignCallCount::getCampaignId, CampaignCallCount::getCount));
+    }
+}
@@ -0,0 +1,125 @@
+package com.nurix.voicecampaign.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Global do-not-call list: numbers on it are never added to a campaign.
+ * <p>
+ * The list lives in the {@code do_not_call} table, keyed by the E.164 digits. Screening an
+ * upload goes through an in-memory {@link LongBloomFilter} first (about 1.2 bytes per listed
+ * number at {@code campaign.dnc.false-positive-rate} 1%, so a 50M-number list takes about
+ * 60 MB), and only the numbers it flags are looked up in the table. The filter is built on
+ * startup, updated by additions on this instance and rebuilt every
+ * {@code campaign.dnc.reload-interval-ms} to pick up changes made by other instances;
+ * removals leave stale bits behind, which cost a lookup but never suppress a number.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DoNotCallList {
+
+    private static final int QUERY_CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final PhoneNumberNormalizer phoneNumberNormalizer;
+
+    @Value("${campaign.dnc.expected-size:1000000}")
+    private long expectedSize;
+
+    @Value("${campaign.dnc.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${campaign.dnc.fetch-size:10000}")
+    private int fetchSize;
+
+    private volatile LongBloomFilter filter;
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${campaign.dnc.reload-interval-ms:600000}", initialDelayString = "${campaign.dnc.reload-interval-ms:600000}")
+    public void reload() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM do_not_call", Long.class);
+        // Room to grow before the false positive rate degrades
+        LongBloomFilter loaded = new LongBloomFilter(Math.max(expectedSize, 2 * (count != null ? count : 0)), falsePositiveRate);
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(fetchSize);
+        streaming.query("SELECT number FROM do_not_call", rs -> {
+            loaded.add(rs.getLong(1));
+        });
+        filter = loaded;
+        log.info("Do-not-call list loaded with {} numbers", count);
+    }
+
+    /**
+     * Which of the given E.164 numbers are listed.
+     */
+    LongHashSet findListed(long[] numbers, int count) {
+        LongBloomFilter current = filter;
+        List<Long> candidates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (current.mightContain(numbers[i])) {
+                candidates.add(numbers[i]);
+            }
+        }
+        LongHashSet listed = new LongHashSet(candidates.size());
+        for (int from = 0; from < candidates.size(); from += QUERY_CHUNK_SIZE) {
+            namedParameterJdbcTemplate.query("SELECT number FROM do_not_call WHERE number IN (:numbers)",
+                    new MapSqlParameterSource("numbers", candidates.subList(from, Math.min(candidates.size(), from + QUERY_CHUNK_SIZE))),
+                    rs -> {
+                        listed.add(rs.getLong(1));
+                    });
+        }
+        return listed;
+    }
+
+    public boolean contains(String number) {
+        long e164 = phoneNumberNormalizer.normalize(number);
+        return e164 != PhoneNumberNormalizer.INVALID && findListed(new long[]{e164}, 1).contains(e164);
+    }
+
+    /**
+     * Adds the numbers that are valid and not listed yet; returns how many were added.
+     */
+    public int add(Collection<String> numbers) {
+        List<Object[]> rows = new ArrayList<>();
+        LongHashSet seen = new LongHashSet(numbers.size());
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (String number : numbers) {
+            long e164 = phoneNumberNormalizer.normalize(number);
+            if (e164 != PhoneNumberNormalizer.INVALID && seen.add(e164)) {
+                // In the filter before the row is visible, so no upload screened in between misses it
+                filter.add(e164);
+                rows.add(new Object[]{e164, now, e164});
+            }
+        }
+        int[] counts = jdbcTemplate.batchUpdate(
+                "INSERT INTO do_not_call (number, created_at) SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM do_not_call WHERE number = ?)",
+                rows);
+        int added = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    public boolean remove(String number) {
+        long e164 = phoneNumberNormalizer.normalize(number);
+        return e164 != PhoneNumberNormalizer.INVALID
+                && jdbcTemplate.update("DELETE FROM do_not_call WHERE number = ?", e164) > 0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.nurix.voicecampaign.service;
+
+import java.util.Random;
+
+/**
+ * A distribution of durations in milliseconds, configured as a string:
+ * {@code fixed:100}, {@code uniform:50-150}, {@code normal:100,20} (mean, standard deviation),
+ * {@code lognormal:100,0.5} (median, sigma of the underlying normal) or {@code exponential:100}
+ * (mean). Samples are never negative.
+ */
+final class DurationDistribution {
+
+    private enum Kind { FIXED, UNIFORM, NORMAL, LOGNORMAL, EXPONENTIAL }
+
+    private final Kind kind;
+    private final double a;
+    private final double b;
+
+    private DurationDistribution(Kind kind, double a, double b) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+    }
+
+    static DurationDistribution parse(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Invalid duration distribution: " + spec);
+        }
+        String args = spec.substring(colon + 1).trim();
+        try {
+            Kind kind = Kind.valueOf(spec.substring(0, colon).trim().toUpperCase());
+            DurationDistribution distribution = switch (kind) {
+                case FIXED, EXPONENTIAL -> new DurationDistribution(kind, Double.parseDouble(args), 0);
+                case UNIFORM -> {
+                    int dash = args.indexOf('-', 1);
+                    yield new DurationDistribution(kind, Double.parseDouble(args.substring(0, dash)),
+                            Double.parseDouble(args.substring(dash + 1)));
+                }
+                case NORMAL, LOGNORMAL -> {
+                    int comma = args.indexOf(',');
+                    yield new DurationDistribution(kind, Double.parseDouble(args.substring(0, comma)),
+                            Double.parseDouble(args.substring(comma + 1)));
+                }
+            };
+            if (distribution.a < 0 || distribution.b < 0 || (kind == Kind.UNIFORM && distribution.b < distribution.a)) {
+                throw new IllegalArgumentException("Invalid duration distribution: " + spec);
+            }
+            return distribution;
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid duration distribution: " + spec, e);
+        }
+    }
+
+    long sample(Random random) {
+        double value = switch (kind) {
+            case FIXED -> a;
+            case UNIFORM -> a + random.nextDouble() * (b - a);
+            case NORMAL -> a + random.nextGaussian() * b;
+            case LOGNORMAL -> a * Math.exp(random.nextGaussian() * b);
+            case EXPONENTIAL -> -a * Math.log(1 - random.nextDouble());
+        };
+        return Math.max(0, Math.round(value));
+    }
+}
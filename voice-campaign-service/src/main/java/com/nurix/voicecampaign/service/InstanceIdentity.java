@@ -0,0 +1,39 @@
+package com.nurix.voicecampaign.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Identifies this instance in row claims and campaign leases. Taken from
+ * {@code campaign.cluster.instance-id}, or the host name plus a random suffix.
+ */
+@Component
+public class InstanceIdentity {
+
+    private static final int MAX_LENGTH = 64;
+
+    private final String id;
+
+    public InstanceIdentity(@Value("${campaign.cluster.instance-id:}") String configuredId) {
+        String suffix = "-" + UUID.randomUUID().toString().substring(0, 8);
+        String generated = hostName();
+        generated = generated.substring(0, Math.min(generated.length(), MAX_LENGTH - suffix.length())) + suffix;
+        this.id = configuredId.isBlank() ? generated : configuredId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "instance";
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.nurix.voicecampaign.service;
+
+/**
+ * Set of positive longs in one open-addressing {@code long[]} with linear probing, 0 marking
+ * a free slot. About 11 bytes per element at the maximum load factor of 0.75, against
+ * roughly 100 for a {@code HashSet<String>} of the same phone numbers.
+ * Not thread-safe.
+ */
+final class LongHashSet {
+
+    private static final float MAX_LOAD = 0.75f;
+
+    private long[] slots;
+    private int size;
+    private int mask;
+
+    LongHashSet(int expectedSize) {
+        long needed = (long) (expectedSize / MAX_LOAD) + 1;
+        int capacity = 16;
+        while (capacity < needed && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adds the value; false if it was already present.
+     */
+    boolean add(long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Only positive values can be stored: " + value);
+        }
+        int index = slot(value, mask);
+        while (slots[index] != 0) {
+            if (slots[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        if (++size > slots.length * MAX_LOAD) {
+            resize();
+        }
+        return true;
+    }
+
+    boolean contains(long value) {
+        int index = slot(value, mask);
+        while (slots[index] != 0) {
+            if (slots[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] old = slots;
+        slots = new long[old.length << 1];
+        mask = slots.length - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int index = slot(value, mask);
+                while (slots[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = value;
+            }
+        }
+    }
+
+    // Phone numbers are dense in their low digits; mix before masking
+    private static int slot(long value, int mask) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
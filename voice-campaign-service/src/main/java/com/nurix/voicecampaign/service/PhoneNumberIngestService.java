@@ -0,0 +1,325 @@
+package com.nurix.voicecampaign.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nurix.voicecampaign.dto.NumberUploadResponse;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.Campaign;
+import com.nurix.voicecampaign.model.NumberUpload;
+import com.nurix.voicecampaign.model.PhoneNumber;
+import com.nurix.voicecampaign.model.UploadFormat;
+import com.nurix.voicecampaign.model.UploadStatus;
+import com.nurix.voicecampaign.repository.CampaignRepository;
+import com.nurix.voicecampaign.repository.NumberUploadRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams phone numbers from a CSV or NDJSON request body into a campaign.
+ * <p>
+ * The body is read line by line and written in fixed-size chunks, each in its own
+ * transaction together with the upload's progress counters. Memory use therefore
+ * depends on the chunk size rather than the size of the list, and an upload that
+ * stops partway can be resumed by sending the same body again with its upload id.
+ * <p>
+ * Numbers are normalised to E.164 by {@link PhoneNumberNormalizer}. Numbers the campaign
+ * already has and numbers on the {@link DoNotCallList} are skipped and counted. Deduplication
+ * uses a {@link LongHashSet} of the campaign's numbers, about 11 bytes per number, so
+ * a 10M-number campaign needs a little over 100 MB. The set is loaded from the database when
+ * an upload starts, without blocking uploads to other campaigns, and is shared by concurrent
+ * uploads to the same campaign on this instance. Uploads to one campaign on different instances are not deduplicated against
+ * each other.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PhoneNumberIngestService {
+
+    private final CampaignRepository campaignRepository;
+    private final NumberUploadRepository numberUploadRepository;
+    private final CampaignStatsCache campaignStatsCache;
+    private final CampaignProgressTracker campaignProgressTracker;
+    private final PhoneNumberNormalizer phoneNumberNormalizer;
+    private final DoNotCallList doNotCallList;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${campaign.ingest.chunk-size:5000}")
+    private int chunkSize;
+
+    private final Map<Long, CampaignNumbers> campaignNumbers = new ConcurrentHashMap<>();
+
+    public NumberUploadResponse ingest(Long campaignId, Long uploadId, UploadFormat format, InputStream body) {
+        Campaign campaign = campaignRepository.findById(campaignId)
+                .orElseThrow(() -> new RuntimeException("Campaign not found"));
+        if (campaign.getArchivedAt() != null) {
+            throw new RuntimeException("Campaign is archived");
+        }
+
+        NumberUpload upload = uploadId == null
+                ? NumberUpload.builder().campaignId(campaignId).format(format).build()
+                : numberUploadRepository.findByIdAndCampaignId(uploadId, campaignId)
+                        .orElseThrow(() -> new RuntimeException("Upload not found"));
+
+        if (upload.getStatus() == UploadStatus.COMPLETED) {
+            return mapToResponse(upload);
+        }
+        upload.setStatus(UploadStatus.IN_PROGRESS);
+        upload.setLastError(null);
+        upload = numberUploadRepository.save(upload);
+
+        // Lines already committed by a previous attempt are skipped, not re-inserted
+        long alreadyProcessed = upload.getRecordsProcessed();
+        if (alreadyProcessed > 0) {
+            log.info("Resuming upload {} for campaign {} after {} records", upload.getId(), campaignId, alreadyProcessed);
+        }
+
+        long[] chunk = new long[chunkSize];
+        int chunkNumbers = 0;
+        long lineNumber = 0;
+        long chunkLines = 0;
+        long chunkRejected = 0;
+
+        CampaignNumbers existing = acquireCampaignNumbers(campaignId);
+        boolean failed = true;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= alreadyProcessed) {
+                    continue;
+                }
+
+                chunkLines++;
+                String number = parseLine(line, format);
+                long e164 = number != null ? phoneNumberNormalizer.normalize(number) : PhoneNumberNormalizer.INVALID;
+                if (e164 != PhoneNumberNormalizer.INVALID) {
+                    chunk[chunkNumbers++] = e164;
+                } else if (!isIgnorable(line, lineNumber)) {
+                    chunkRejected++;
+                }
+
+                if (chunkLines >= chunkSize) {
+                    writeChunk(upload, existing, chunk, chunkNumbers, chunkLines, chunkRejected);
+                    chunkNumbers = 0;
+                    chunkLines = 0;
+                    chunkRejected = 0;
+                }
+            }
+            if (chunkLines > 0) {
+                writeChunk(upload, existing, chunk, chunkNumbers, chunkLines, chunkRejected);
+            }
+            failed = false;
+        } catch (IOException | RuntimeException e) {
+            log.error("Upload {} for campaign {} stopped after {} records", upload.getId(), campaignId, upload.getRecordsProcessed(), e);
+            upload.setStatus(UploadStatus.FAILED);
+            String message = e.getMessage();
+            upload.setLastError(message != null && message.length() > 1000 ? message.substring(0, 1000) : message);
+            numberUploadRepository.save(upload);
+            if (e instanceof IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+            throw (RuntimeException) e;
+        } finally {
+            releaseCampaignNumbers(campaignId, failed);
+        }
+
+        upload.setStatus(UploadStatus.COMPLETED);
+        upload = numberUploadRepository.save(upload);
+        log.info("Upload {} for campaign {} completed: {} numbers inserted, {} rejected, {} duplicate, {} suppressed",
+                upload.getId(), campaignId, upload.getNumbersInserted(), upload.getRecordsRejected(),
+                upload.getNumbersDuplicate(), upload.getNumbersSuppressed());
+        return mapToResponse(upload);
+    }
+
+    public NumberUploadResponse getUpload(Long campaignId, Long uploadId) {
+        NumberUpload upload = numberUploadRepository.findByIdAndCampaignId(uploadId, campaignId)
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+        return mapToResponse(upload);
+    }
+
+    private void writeChunk(NumberUpload upload, CampaignNumbers existing, long[] chunk, int count, long lines, long rejected) {
+        LongHashSet listed = doNotCallList.findListed(chunk, count);
+        List<String> numbers = new ArrayList<>(count);
+        long duplicate = 0;
+        long suppressed = 0;
+        synchronized (existing) {
+            for (int i = 0; i < count; i++) {
+                if (listed.contains(chunk[i])) {
+                    suppressed++;
+                } else if (existing.numbers.add(chunk[i])) {
+                    numbers.add(PhoneNumberNormalizer.format(chunk[i]));
+                } else {
+                    duplicate++;
+                }
+            }
+        }
+        long duplicateCount = duplicate;
+        long suppressedCount = suppressed;
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            Campaign campaign = entityManager.getReference(Campaign.class, upload.getCampaignId());
+            for (String number : numbers) {
+                entityManager.persist(PhoneNumber.builder()
+                        .number(number)
+                        .status(CallStatus.PENDING)
+                        .campaign(campaign)
+                        .retriesAttempted(0)
+                        .build());
+            }
+
+            // Progress is committed atomically with the rows it describes
+            NumberUpload managed = entityManager.find(NumberUpload.class, upload.getId());
+            managed.setRecordsProcessed(managed.getRecordsProcessed() + lines);
+            managed.setNumbersInserted(managed.getNumbersInserted() + numbers.size());
+            managed.setRecordsRejected(managed.getRecordsRejected() + rejected);
+            managed.setNumbersDuplicate(managed.getNumbersDuplicate() + duplicateCount);
+            managed.setNumbersSuppressed(managed.getNumbersSuppressed() + suppressedCount);
+
+            entityManager.flush();
+            entityManager.clear();
+        });
+
+        campaignStatsCache.evict(upload.getCampaignId());
+        campaignProgressTracker.evict(upload.getCampaignId());
+
+        upload.setRecordsProcessed(upload.getRecordsProcessed() + lines);
+        upload.setNumbersInserted(upload.getNumbersInserted() + numbers.size());
+        upload.setRecordsRejected(upload.getRecordsRejected() + rejected);
+        upload.setNumbersDuplicate(upload.getNumbersDuplicate() + duplicateCount);
+        upload.setNumbersSuppressed(upload.getNumbersSuppressed() + suppressedCount);
+    }
+
+    private CampaignNumbers acquireCampaignNumbers(Long campaignId) {
+        CampaignNumbers acquired = campaignNumbers.compute(campaignId, (id, current) -> {
+            CampaignNumbers numbers = current != null ? current : new CampaignNumbers();
+            numbers.uploads++;
+            return numbers;
+        });
+        // Loaded outside compute(), which would hold the map's bin lock, and so block uploads to other
+        // campaigns, for the whole scan. Concurrent uploads to this campaign wait here for the same set.
+        try {
+            synchronized (acquired) {
+                if (acquired.numbers == null) {
+                    acquired.numbers = loadCampaignNumbers(campaignId);
+                }
+            }
+        } catch (RuntimeException e) {
+            releaseCampaignNumbers(campaignId, true);
+            throw e;
+        }
+        return acquired;
+    }
+
+    // A failed upload may have added numbers whose chunk was never committed; the set is then reloaded by the next upload
+    private void releaseCampaignNumbers(Long campaignId, boolean discard) {
+        campaignNumbers.computeIfPresent(campaignId, (id, current) -> --current.uploads == 0 || discard ? null : current);
+    }
+
+    private LongHashSet loadCampaignNumbers(Long campaignId) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM phone_numbers WHERE campaign_id = ?", Long.class, campaignId);
+        LongHashSet numbers = new LongHashSet((int) Math.min(Integer.MAX_VALUE, count != null ? count : 0));
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(chunkSize);
+        streaming.query("SELECT number FROM phone_numbers WHERE campaign_id = ?", rs -> {
+            // Numbers stored before normalisation are compared by their normalised form
+            long e164 = phoneNumberNormalizer.normalize(rs.getString(1));
+            if (e164 != PhoneNumberNormalizer.INVALID) {
+                numbers.add(e164);
+            }
+        }, campaignId);
+        return numbers;
+    }
+
+    private String parseLine(String line, UploadFormat format) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        String value = format == UploadFormat.CSV ? parseCsvField(trimmed) : parseJsonValue(trimmed);
+        return value != null && containsDigit(value) ? value : null;
+    }
+
+    private String parseCsvField(String line) {
+        int comma = line.indexOf(',');
+        String field = (comma >= 0 ? line.substring(0, comma) : line).trim();
+        if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")) {
+            field = field.substring(1, field.length() - 1).trim();
+        }
+        return field.isEmpty() ? null : field;
+    }
+
+    private String parseJsonValue(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            if (node.isTextual() || node.isNumber()) {
+                return node.asText();
+            }
+            for (String field : new String[]{"number", "phoneNumber", "phone_number"}) {
+                JsonNode value = node.get(field);
+                if (value != null && !value.isNull()) {
+                    return value.asText();
+                }
+            }
+            return null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    // Blank lines and a leading CSV header are skipped without counting as rejected
+    private boolean isIgnorable(String line, long lineNumber) {
+        return line.isBlank() || (lineNumber == 1 && !containsDigit(line));
+    }
+
+    private boolean containsDigit(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isDigit(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private NumberUploadResponse mapToResponse(NumberUpload upload) {
+        return NumberUploadResponse.builder()
+                .uploadId(upload.getId())
+                .campaignId(upload.getCampaignId())
+                .format(upload.getFormat())
+                .status(upload.getStatus())
+                .recordsProcessed(upload.getRecordsProcessed())
+                .numbersInserted(upload.getNumbersInserted())
+                .recordsRejected(upload.getRecordsRejected())
+                .numbersDuplicate(upload.getNumbersDuplicate())
+                .numbersSuppressed(upload.getNumbersSuppressed())
+                .lastError(upload.getLastError())
+                .createdAt(upload.getCreatedAt())
+                .updatedAt(upload.getUpdatedAt())
+                .build();
+    }
+
+    // Guarded by its own monitor; numbers is null until the first upload has loaded it
+    private static final class CampaignNumbers {
+        private LongHashSet numbers;
+        private int uploads;
+    }
+}
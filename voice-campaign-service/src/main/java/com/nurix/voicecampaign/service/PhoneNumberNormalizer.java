@@ -0,0 +1,80 @@
+package com.nurix.voicecampaign.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * E.164 normalisation of phone numbers as they come in from campaign requests and uploads.
+ * <p>
+ * A normalised number is kept as a {@code long} of its digits (E.164 allows at most 15, so
+ * it always fits) for deduplication and suppression, and stored as {@code +<digits>}.
+ * Spaces, dashes, dots and parentheses are ignored. Numbers starting with {@code +} or the
+ * {@code 00} international prefix already carry their country code; anything else is a
+ * national number, which loses a leading trunk {@code 0} and gets
+ * {@code campaign.numbers.default-country-code}
+ * (unless it is longer than a national number and already starts with that code). There
+ * is no per-country numbering plan: only the overall E.164 length is checked.
+ */
+@Component
+public class PhoneNumberNormalizer {
+
+    static final long INVALID = -1;
+
+    private static final int MIN_DIGITS = 8;
+    private static final int MAX_DIGITS = 15;
+    private static final int MAX_NATIONAL_DIGITS = 10;
+
+    @Value("${campaign.numbers.default-country-code:1}")
+    private int defaultCountryCode;
+
+    /**
+     * The number's E.164 digits, or {@link #INVALID}.
+     */
+    public long normalize(String raw) {
+        return parse(raw, defaultCountryCode);
+    }
+
+    static long parse(String raw, int defaultCountryCode) {
+        if (raw == null) {
+            return INVALID;
+        }
+        StringBuilder digits = new StringBuilder(16);
+        boolean international = false;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == '+' && digits.length() == 0 && !international) {
+                international = true;
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return INVALID;
+            }
+            if (digits.length() > MAX_DIGITS + 2) {
+                return INVALID;
+            }
+        }
+        if (!international && digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+            international = true;
+            digits.delete(0, 2);
+        }
+        if (!international) {
+            String countryCode = Integer.toString(defaultCountryCode);
+            boolean hasCountryCode = digits.length() > MAX_NATIONAL_DIGITS && digits.indexOf(countryCode) == 0;
+            if (!hasCountryCode) {
+                if (digits.length() > 0 && digits.charAt(0) == '0') {
+                    digits.deleteCharAt(0);
+                }
+                digits.insert(0, countryCode);
+            }
+        }
+        // Country codes never start with 0
+        if (digits.length() < MIN_DIGITS || digits.length() > MAX_DIGITS || digits.charAt(0) == '0') {
+            return INVALID;
+        }
+        return Long.parseLong(digits, 0, digits.length(), 10);
+    }
+
+    public static String format(long e164) {
+        return "+" + e164;
+    }
+}
@@ -0,0 +1,15 @@
+package com.nurix.voicecampaign.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * A phone number the dispatcher has reserved (committed as IN_PROGRESS) and that is
+ * waiting for its provider request.
+ */
+public record ReservedCall(Long phoneNumberId, Long campaignId, String number, String callerId,
+                           LocalDateTime leaseExpiresAt, int attempt, LocalDateTime reservedAt) {
+
+    ReservedCall withLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        return new ReservedCall(phoneNumberId, campaignId, number, callerId, leaseExpiresAt, attempt, reservedAt);
+    }
+}
@@ -0,0 +1,180 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.event.RetryDueEvent;
+import com.nurix.voicecampaign.model.Campaign;
+import com.nurix.voicecampaign.model.FailureReason;
+import com.nurix.voicecampaign.model.RetryBackoff;
+import com.nurix.voicecampaign.repository.CampaignRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a failed number is retried.
+ * <p>
+ * The delay follows the campaign's {@link RetryBackoff} ({@code EXPONENTIAL} doubles the
+ * base delay per attempt up to the maximum and applies equal jitter, so half the delay is
+ * random and retries of numbers that failed together spread out; {@code FIXED} uses the
+ * base delay) and the {@link FailureReason}: busy numbers are retried after the base delay,
+ * claims that expired before the call was placed immediately, and invalid numbers never.
+ * The result is stored as the number's {@code next_attempt_at}.
+ * <p>
+ * Retries due within {@code campaign.retry.delay-queue-horizon-ms} are also put on an
+ * in-memory delay queue, which publishes a {@link RetryDueEvent} for the campaign when they
+ * come due so they are dispatched on time instead of on the next sweep. Wakeups are rounded
+ * up to {@link #WAKEUP_RESOLUTION_MS} and deduplicated per campaign.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RetryScheduler {
+
+    static final long WAKEUP_RESOLUTION_MS = 100;
+
+    private final CampaignRepository campaignRepository;
+    private final RunningCampaignRegistry runningCampaignRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${campaign.retry.default-backoff:EXPONENTIAL}")
+    private RetryBackoff defaultBackoff;
+
+    @Value("${campaign.retry.default-delay-ms:60000}")
+    private long defaultDelayMs;
+
+    @Value("${campaign.retry.default-max-delay-ms:3600000}")
+    private long defaultMaxDelayMs;
+
+    @Value("${campaign.retry.delay-queue-horizon-ms:300000}")
+    private long delayQueueHorizonMs;
+
+    private final Map<Long, Policy> policies = new ConcurrentHashMap<>();
+    private final DelayQueue<Wakeup> wakeups = new DelayQueue<>();
+    private final Set<Wakeup> queued = ConcurrentHashMap.newKeySet();
+
+    private Thread wakeupThread;
+
+    @PostConstruct
+    public void start() {
+        wakeupThread = new Thread(this::deliverWakeups, "retry-wakeup");
+        wakeupThread.setDaemon(true);
+        wakeupThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        wakeupThread.interrupt();
+    }
+
+    /**
+     * When the number may be dialled again after its {@code attempts}-th attempt failed,
+     * or {@code null} if it is not retried.
+     */
+    public LocalDateTime nextAttemptAt(Long campaignId, int attempts, FailureReason reason) {
+        Policy policy = policies.get(campaignId);
+        if (policy == null) {
+            // Loaded outside the map, so a slow query doesn't hold up other campaigns' lookups
+            Policy loaded = loadPolicy(campaignId);
+            policy = Objects.requireNonNullElse(policies.putIfAbsent(campaignId, loaded), loaded);
+        }
+        if (attempts >= policy.retryCount() || reason == FailureReason.INVALID_NUMBER) {
+            return null;
+        }
+        long delayMs = delayMs(policy, attempts, reason);
+        if (delayMs > 0 && delayMs <= delayQueueHorizonMs) {
+            wakeUpAfter(campaignId, delayMs);
+        }
+        return LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delayMs));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignStatusChanged(CampaignStatusChangedEvent event) {
+        policies.remove(event.campaignId());
+    }
+
+    static long delayMs(Policy policy, int attempts, FailureReason reason) {
+        if (reason == FailureReason.CLAIM_EXPIRED) {
+            return 0;
+        }
+        if (reason == FailureReason.BUSY || policy.backoff() == RetryBackoff.FIXED) {
+            return policy.delayMs();
+        }
+        // Doubling capped before it can overflow
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        long delay = Math.min(policy.maxDelayMs(), policy.delayMs() << doublings);
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    // From the running campaign's snapshot; calls of a campaign that stopped meanwhile still finish
+    private Policy loadPolicy(Long campaignId) {
+        RunningCampaign running = runningCampaignRegistry.get(campaignId);
+        if (running != null) {
+            return policy(running.retryCount(), running.retryBackoff(), running.retryDelayMs(), running.retryMaxDelayMs());
+        }
+        Campaign campaign = campaignRepository.findById(campaignId)
+                .orElseThrow(() -> new RuntimeException("Campaign not found"));
+        return policy(campaign.getRetryCount() != null ? campaign.getRetryCount() : 0, campaign.getRetryBackoff(),
+                campaign.getRetryDelayMs(), campaign.getRetryMaxDelayMs());
+    }
+
+    private Policy policy(int retryCount, RetryBackoff backoff, Long delayMs, Long maxDelayMs) {
+        return new Policy(retryCount,
+                backoff != null ? backoff : defaultBackoff,
+                delayMs != null ? delayMs : defaultDelayMs,
+                maxDelayMs != null ? maxDelayMs : defaultMaxDelayMs);
+    }
+
+    private void wakeUpAfter(Long campaignId, long delayMs) {
+        long dueAt = System.currentTimeMillis() + delayMs;
+        Wakeup wakeup = new Wakeup(campaignId, (dueAt + WAKEUP_RESOLUTION_MS - 1) / WAKEUP_RESOLUTION_MS * WAKEUP_RESOLUTION_MS);
+        if (queued.add(wakeup)) {
+            wakeups.add(wakeup);
+        }
+    }
+
+    private void deliverWakeups() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Wakeup wakeup = wakeups.take();
+                queued.remove(wakeup);
+                eventPublisher.publishEvent(new RetryDueEvent(wakeup.campaignId()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Failed to deliver retry wakeup", e);
+            }
+        }
+    }
+
+    record Policy(int retryCount, RetryBackoff backoff, long delayMs, long maxDelayMs) {
+    }
+
+    private record Wakeup(Long campaignId, long dueAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Wakeup) other).dueAtMillis);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.model.Campaign;
+import com.nurix.voicecampaign.model.RetryBackoff;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Immutable snapshot of a running campaign's configuration, as of {@code version}, with its
+ * timezone parsed and its business hours resolved against it. Null retry fields use the
+ * {@code campaign.retry.*} defaults, as on the entity.
+ */
+public record RunningCampaign(Long id, long version, String callerId, int concurrencyLimit, int retryCount,
+                              RetryBackoff retryBackoff, Long retryDelayMs, Long retryMaxDelayMs, ZoneId zone,
+                              BusinessHoursSchedule businessHours, LocalDateTime updatedAt) {
+
+    static RunningCampaign of(Campaign campaign, ZoneId zone) {
+        return new RunningCampaign(campaign.getId(), campaign.getVersion() != null ? campaign.getVersion() : 0,
+                campaign.getCallerId(),
+                campaign.getConcurrencyLimit() != null ? campaign.getConcurrencyLimit() : 0,
+                campaign.getRetryCount() != null ? campaign.getRetryCount() : 0,
+                campaign.getRetryBackoff(), campaign.getRetryDelayMs(), campaign.getRetryMaxDelayMs(), zone,
+                BusinessHoursSchedule.of(campaign, zone), campaign.getUpdatedAt());
+    }
+}
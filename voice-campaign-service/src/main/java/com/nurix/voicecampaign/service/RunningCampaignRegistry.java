@@ -0,0 +1,166 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.Campaign;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import com.nurix.voicecampaign.repository.CampaignRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of running campaigns, so the periodic jobs in {@link CampaignScheduler}
+ * don't load campaign entities just to find out what is running, and {@link CampaignDispatcher},
+ * {@link BusinessHoursCalendar} and {@link RetryScheduler} read a campaign's configuration
+ * without going to the database.
+ * <p>
+ * Each campaign is held as an immutable {@link RunningCampaign} snapshot with its timezone
+ * already parsed and its business hours resolved. {@link CampaignService} writes through on start and pause, and campaigns
+ * that stop running for another reason (completion) are dropped on their
+ * {@link CampaignStatusChangedEvent}; both take effect once the change commits. Changes
+ * made by other instances are picked up every {@code campaign.registry.refresh-interval-ms}
+ * with one query for the ids and versions of the running campaigns: only campaigns that
+ * are new or whose {@code version} moved are reloaded, and missing ones are dropped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RunningCampaignRegistry {
+
+    private final CampaignRepository campaignRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, RunningCampaign> campaigns = new ConcurrentHashMap<>();
+    private final Map<String, ZoneId> zones = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("campaign.registry.running", campaigns, Map::size)
+                .description("Campaigns the registry holds as running")
+                .register(meterRegistry);
+        refresh();
+    }
+
+    public Collection<RunningCampaign> campaigns() {
+        return campaigns.values();
+    }
+
+    public RunningCampaign get(Long campaignId) {
+        return campaigns.get(campaignId);
+    }
+
+    /**
+     * Registers the campaign, which the caller just started, once its transaction commits.
+     */
+    public void put(Campaign campaign) {
+        RunningCampaign snapshot = snapshot(campaign);
+        afterCommit(() -> campaigns.merge(snapshot.id(), snapshot,
+                (existing, incoming) -> incoming.version() >= existing.version() ? incoming : existing));
+    }
+
+    /**
+     * Drops the campaign, which the caller just stopped, once its transaction commits.
+     */
+    public void remove(Long campaignId) {
+        afterCommit(() -> campaigns.remove(campaignId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignStatusChanged(CampaignStatusChangedEvent event) {
+        if (event.newStatus() != CampaignStatus.RUNNING) {
+            campaigns.remove(event.campaignId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${campaign.registry.refresh-interval-ms:5000}",
+            initialDelayString = "${campaign.registry.refresh-interval-ms:5000}")
+    public void refresh() {
+        // Entries written through while the refresh runs are left alone
+        Map<Long, RunningCampaign> before = new HashMap<>(campaigns);
+        Map<Long, Long> versions = new HashMap<>();
+        jdbcTemplate.query("SELECT id, version FROM campaigns WHERE status = 'RUNNING'",
+                rs -> {
+                    versions.put(rs.getLong("id"), rs.getLong("version"));
+                });
+
+        List<Long> changed = new ArrayList<>();
+        versions.forEach((id, version) -> {
+            RunningCampaign known = before.get(id);
+            if (known == null || known.version() != version) {
+                changed.add(id);
+            }
+        });
+        // In a transaction, since business hours and holidays are loaded lazily
+        List<RunningCampaign> snapshots = changed.isEmpty() ? List.of() : transactionTemplate.execute(tx ->
+                campaignRepository.findAllById(changed).stream().map(this::snapshot).toList());
+        for (RunningCampaign snapshot : snapshots) {
+            RunningCampaign known = before.get(snapshot.id());
+            if (known == null) {
+                campaigns.putIfAbsent(snapshot.id(), snapshot);
+            } else {
+                campaigns.replace(snapshot.id(), known, snapshot);
+            }
+        }
+        before.forEach((id, known) -> {
+            if (!versions.containsKey(id)) {
+                campaigns.remove(id, known);
+            }
+        });
+        if (!changed.isEmpty()) {
+            log.debug("Reloaded {} running campaigns", changed.size());
+        }
+    }
+
+    private RunningCampaign snapshot(Campaign campaign) {
+        return RunningCampaign.of(campaign, zoneOf(campaign));
+    }
+
+    private ZoneId zoneOf(Campaign campaign) {
+        String timezone = campaign.getTimezone();
+        if (timezone == null || timezone.isEmpty()) {
+            return ZoneId.systemDefault();
+        }
+        return zones.computeIfAbsent(timezone, id -> {
+            try {
+                return ZoneId.of(id);
+            } catch (DateTimeException e) {
+                log.warn("Unknown timezone {} for campaign {}, using the system default", id, campaign.getId());
+                return ZoneId.systemDefault();
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.FailureReason;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Frees calls that are stuck IN_PROGRESS.
+ * <p>
+ * Every in-flight call carries a lease in {@code lease_expires_at}: the claim lease while
+ * it is reserved but not yet placed, and {@code campaign.reaper.max-call-duration-ms} once
+ * the provider has accepted it (cleared when the outcome is stored). Each run takes the
+ * calls whose lease has run out, oldest first, with their call id from {@code in_flight_calls},
+ * and resolves them:
+ * <ul>
+ *     <li>never placed (the reserving instance went away): FAILED with {@code CLAIM_EXPIRED}</li>
+ *     <li>finished at the provider: the provider's outcome</li>
+ *     <li>unknown to the provider: FAILED with {@code CALL_LOST}</li>
+ *     <li>still running at the provider: the lease is extended by another max call duration</li>
+ * </ul>
+ * Failed calls get their retry time from {@link RetryScheduler}. All changes are applied as
+ * JDBC batch updates guarded by {@code status = 'IN_PROGRESS'} and the expired lease, so a
+ * callback or another instance's reaper that got there first wins. Leaving IN_PROGRESS
+ * publishes {@link CallStatusChangedEvent}, which releases the concurrency slot, and ends the
+ * attempt in {@link CallAttemptLog}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StuckCallReaper {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final CallService callService;
+    private final RetryScheduler retryScheduler;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CallAttemptLog callAttemptLog;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${campaign.reaper.max-call-duration-ms:600000}")
+    private long maxCallDurationMs;
+
+    @Scheduled(fixedDelayString = "${campaign.reaper.interval-ms:30000}")
+    public void reap() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ExpiredCall> expired;
+        do {
+            expired = findExpired(now);
+            resolve(expired, now);
+        } while (expired.size() == PAGE_SIZE);
+    }
+
+    private List<ExpiredCall> findExpired(LocalDateTime now) {
+        return jdbcTemplate.query(
+                "SELECT p.id, p.campaign_id, f.external_call_id, p.retries_attempted, f.started_at, p.lease_owner " +
+                        "FROM phone_numbers p LEFT JOIN in_flight_calls f " +
+                        "ON f.phone_number_id = p.id AND f.attempt = p.retries_attempted " +
+                        "WHERE p.status = 'IN_PROGRESS' AND p.lease_expires_at < ? ORDER BY p.lease_expires_at LIMIT ?",
+                (rs, row) -> new ExpiredCall(rs.getLong("id"), rs.getLong("campaign_id"), rs.getString("external_call_id"),
+                        rs.getInt("retries_attempted"), toLocalDateTime(rs.getTimestamp("started_at")), rs.getString("lease_owner")),
+                Timestamp.valueOf(now), PAGE_SIZE);
+    }
+
+    private void resolve(List<ExpiredCall> expired, LocalDateTime now) {
+        List<Resolution> finished = new ArrayList<>();
+        List<ExpiredCall> stillRunning = new ArrayList<>();
+        // Provider requests happen outside the transaction
+        for (ExpiredCall call : expired) {
+            if (call.externalCallId() == null) {
+                log.warn("Claim on number {} by {} expired before the call was placed", call.id(), call.leaseOwner());
+                finished.add(failed(call, FailureReason.CLAIM_EXPIRED));
+                continue;
+            }
+            CallStatus status = pollProvider(call);
+            if (status == null) {
+                log.warn("Call {} for number {} is unknown to the provider", call.externalCallId(), call.id());
+                finished.add(failed(call, FailureReason.CALL_LOST));
+            } else if (status == CallStatus.IN_PROGRESS) {
+                stillRunning.add(call);
+            } else if (status == CallStatus.FAILED) {
+                finished.add(failed(call, FailureReason.UNKNOWN));
+            } else {
+                finished.add(new Resolution(call, status, null, null));
+            }
+        }
+        if (!finished.isEmpty() || !stillRunning.isEmpty()) {
+            transactionTemplate.executeWithoutResult(tx -> {
+                applyOutcomes(finished, now);
+                extendLeases(stillRunning, now);
+            });
+        }
+    }
+
+    private CallStatus pollProvider(ExpiredCall call) {
+        try {
+            return callService.getCallStatus(call.externalCallId());
+        } catch (RuntimeException e) {
+            // Treated as still running; the call is looked at again once the extended lease runs out
+            log.warn("Failed to poll call {}: {}", call.externalCallId(), e.getMessage());
+            return CallStatus.IN_PROGRESS;
+        }
+    }
+
+    private Resolution failed(ExpiredCall call, FailureReason reason) {
+        return new Resolution(call, CallStatus.FAILED, reason,
+                retryScheduler.nextAttemptAt(call.campaignId(), call.retriesAttempted(), reason));
+    }
+
+    private void applyOutcomes(List<Resolution> finished, LocalDateTime now) {
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        int[][] updated = jdbcTemplate.batchUpdate(
+                "UPDATE phone_numbers SET status = ?, failure_reason = ?, next_attempt_at = ?, lease_owner = NULL, " +
+                        "lease_expires_at = NULL, updated_at = ? WHERE id = ? AND status = 'IN_PROGRESS' AND lease_expires_at < ?",
+                finished, finished.size(), (ps, resolution) -> {
+                    ps.setString(1, resolution.status().name());
+                    ps.setString(2, resolution.reason() != null ? resolution.reason().name() : null);
+                    ps.setTimestamp(3, resolution.nextAttemptAt() != null ? Timestamp.valueOf(resolution.nextAttemptAt()) : null);
+                    ps.setTimestamp(4, updatedAt);
+                    ps.setLong(5, resolution.call().id());
+                    ps.setTimestamp(6, updatedAt);
+                });
+
+        List<CallAttempt> attempts = new ArrayList<>();
+        int index = 0;
+        for (int[] chunk : updated) {
+            for (int count : chunk) {
+                Resolution resolution = finished.get(index++);
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    ExpiredCall call = resolution.call();
+                    String outcome = resolution.reason() != null ? resolution.reason().name() : resolution.status().name();
+                    meterRegistry.counter("call.reaper.reaped", "outcome", outcome).increment();
+                    eventPublisher.publishEvent(new CallStatusChangedEvent(call.campaignId(), call.id(),
+                            CallStatus.IN_PROGRESS, resolution.status(), resolution.nextAttemptAt() != null));
+                    attempts.add(new CallAttempt(call.campaignId(), call.id(), call.retriesAttempted(), call.externalCallId(),
+                            resolution.status(), resolution.reason(), call.startedAt(), now));
+                }
+            }
+        }
+        List<ExpiredCall> placed = finished.stream().map(Resolution::call).filter(call -> call.externalCallId() != null).toList();
+        jdbcTemplate.batchUpdate("DELETE FROM in_flight_calls WHERE external_call_id = ?",
+                placed, placed.size(), (ps, call) -> ps.setString(1, call.externalCallId()));
+        callAttemptLog.append(attempts);
+    }
+
+    private void extendLeases(List<ExpiredCall> stillRunning, LocalDateTime now) {
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        Timestamp leaseExpiresAt = Timestamp.valueOf(now.plusNanos(maxCallDurationMs * 1_000_000));
+        jdbcTemplate.batchUpdate(
+                "UPDATE phone_numbers SET lease_expires_at = ?, updated_at = ? " +
+                        "WHERE id = ? AND status = 'IN_PROGRESS' AND lease_expires_at < ?",
+                stillRunning, stillRunning.size(), (ps, call) -> {
+                    ps.setTimestamp(1, leaseExpiresAt);
+                    ps.setTimestamp(2, updatedAt);
+                    ps.setLong(3, call.id());
+                    ps.setTimestamp(4, updatedAt);
+                });
+        if (!stillRunning.isEmpty()) {
+            meterRegistry.counter("call.reaper.extended").increment(stillRunning.size());
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    // externalCallId and startedAt are null for a call that was never placed
+    private record ExpiredCall(long id, long campaignId, String externalCallId, int retriesAttempted,
+                               LocalDateTime startedAt, String leaseOwner) {
+    }
+
+    private record Resolution(ExpiredCall call, CallStatus status, FailureReason reason, LocalDateTime nextAttemptAt) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.nurix.voicecampaign.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as a generic cell rate algorithm: the only state
+ * is the theoretical arrival time of the next call, advanced with a CAS by one emission
+ * interval per token. Equivalent to a bucket refilled at {@code ratePerSecond} holding
+ * at most {@code burst} tokens.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(double ratePerSecond, int burst) {
+        this.intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstToleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        // Starts full; any time in the past works since an idle bucket never banks more than the burst
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - TimeUnit.HOURS.toNanos(1));
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if a token was taken, otherwise how long to wait for the next one in nanoseconds
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            // An idle bucket doesn't bank more than the burst
+            long arrival = current - nowNanos < 0 ? nowNanos : current;
+            long wait = arrival - burstToleranceNanos - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, arrival + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Whether the whole burst is available, as in a new bucket.
+     */
+    boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+
+    /**
+     * Returns a token taken by {@link #tryAcquire} that ended up unused.
+     */
+    void refund() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+}
@@ -0,0 +1,2 @@
+-- Serves the keyset-paginated call listing and the call export: rows of one campaign in id order
+CREATE INDEX idx_phone_numbers_campaign_id ON phone_numbers (campaign_id, id);
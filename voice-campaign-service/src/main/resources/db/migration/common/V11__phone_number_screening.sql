@@ -0,0 +1,9 @@
+-- Numbers are normalised to E.164 and deduplicated per campaign at ingest; uploads report what was skipped
+ALTER TABLE number_uploads ADD COLUMN numbers_duplicate BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE number_uploads ADD COLUMN numbers_suppressed BIGINT DEFAULT 0 NOT NULL;
+
+-- Global do-not-call list, keyed by the number's E.164 digits
+CREATE TABLE do_not_call (
+    number     BIGINT       PRIMARY KEY,
+    created_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,27 @@
+-- Finished campaigns' numbers are moved out of phone_numbers by CampaignArchiver.
+-- archived_at is set when archival starts; such a campaign takes no more numbers.
+ALTER TABLE campaigns ADD COLUMN archived_at TIMESTAMP(6);
+
+-- Call counts of an archived campaign, taken before its numbers were moved
+CREATE TABLE campaign_archives (
+    campaign_id       BIGINT       NOT NULL PRIMARY KEY,
+    pending_calls     BIGINT       NOT NULL,
+    in_progress_calls BIGINT       NOT NULL,
+    completed_calls   BIGINT       NOT NULL,
+    failed_calls      BIGINT       NOT NULL,
+    archived_at       TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_campaign_archives_campaign FOREIGN KEY (campaign_id) REFERENCES campaigns (id)
+);
+
+-- The numbers themselves, as gzipped CSV in the export's column order, in id order.
+-- A chunk covers the rows with first_id <= id <= last_id.
+CREATE TABLE phone_number_archive_chunks (
+    campaign_id BIGINT  NOT NULL,
+    chunk_no    INTEGER NOT NULL,
+    first_id    BIGINT  NOT NULL,
+    last_id     BIGINT  NOT NULL,
+    row_count   INTEGER NOT NULL,
+    data        BYTEA   NOT NULL,
+    CONSTRAINT pk_phone_number_archive_chunks PRIMARY KEY (campaign_id, chunk_no),
+    CONSTRAINT fk_phone_number_archive_chunks_campaign FOREIGN KEY (campaign_id) REFERENCES campaigns (id)
+);
@@ -0,0 +1,17 @@
+-- Append-only history of call attempts, one row per attempt, written in batches by CallAttemptLog.
+-- phone_numbers keeps only the current state of each number. No foreign keys, so inserts stay
+-- cheap and the history outlives archived numbers.
+CREATE TABLE call_attempts (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campaign_id      BIGINT       NOT NULL,
+    phone_number_id  BIGINT       NOT NULL,
+    attempt          INTEGER      NOT NULL,
+    external_call_id VARCHAR(255),
+    status           VARCHAR(32)  NOT NULL,
+    failure_reason   VARCHAR(32),
+    started_at       TIMESTAMP(6),
+    ended_at         TIMESTAMP(6) NOT NULL
+);
+
+-- Attempts of one number, and of a whole campaign, for analytics
+CREATE INDEX idx_call_attempts_campaign_number ON call_attempts (campaign_id, phone_number_id, attempt);
@@ -0,0 +1,3 @@
+-- Bumped on every change to a campaign (JPA @Version, plus the JDBC status updates), so
+-- RunningCampaignRegistry can tell which campaigns another instance changed
+ALTER TABLE campaigns ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,41 @@
+-- Placed calls awaiting their outcome, keyed by the provider's call id. Callbacks and the
+-- status poll match calls here instead of on phone_numbers, and a row is deleted once the
+-- outcome is stored; the attempt itself is kept in call_attempts.
+CREATE TABLE in_flight_calls (
+    external_call_id VARCHAR(255) NOT NULL PRIMARY KEY,
+    campaign_id      BIGINT       NOT NULL,
+    phone_number_id  BIGINT       NOT NULL,
+    attempt          INTEGER      NOT NULL,
+    started_at       TIMESTAMP(6)
+);
+
+-- The reaper and the call listing find a number's current call
+CREATE INDEX idx_in_flight_calls_number ON in_flight_calls (phone_number_id, attempt);
+-- The status poll takes a campaign's oldest calls
+CREATE INDEX idx_in_flight_calls_campaign_started ON in_flight_calls (campaign_id, started_at);
+
+INSERT INTO in_flight_calls (external_call_id, campaign_id, phone_number_id, attempt, started_at)
+SELECT external_call_id, campaign_id, id, retries_attempted, last_attempt_time
+FROM phone_numbers
+WHERE status = 'IN_PROGRESS' AND external_call_id IS NOT NULL;
+
+-- Finished calls from before call_attempts existed keep their call id in the listing and export
+INSERT INTO call_attempts (campaign_id, phone_number_id, attempt, external_call_id, status, failure_reason,
+                           started_at, ended_at)
+SELECT p.campaign_id, p.id, p.retries_attempted, p.external_call_id, p.status, p.failure_reason,
+       p.last_attempt_time, COALESCE(p.updated_at, CURRENT_TIMESTAMP)
+FROM phone_numbers p
+WHERE p.status IN ('COMPLETED', 'FAILED') AND p.external_call_id IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM call_attempts a
+                  WHERE a.campaign_id = p.campaign_id AND a.phone_number_id = p.id AND a.attempt = p.retries_attempted);
+
+-- phone_numbers keeps only the number's current state. Without the call id and attempt
+-- time, and their indexes, an attempt no longer rewrites a 255-character column nor
+-- maintains two index entries that only served the callback lookup and the old dispatch query.
+DROP INDEX idx_phone_numbers_campaign_status_attempt;
+DROP INDEX idx_phone_numbers_external_call_id;
+ALTER TABLE phone_numbers DROP COLUMN external_call_id;
+ALTER TABLE phone_numbers DROP COLUMN last_attempt_time;
+
+-- The per-status counts and the clustered in-progress count per dispatch round
+CREATE INDEX idx_phone_numbers_campaign_status ON phone_numbers (campaign_id, status);
@@ -0,0 +1,42 @@
+-- Baseline schema, previously generated by spring.jpa.hibernate.ddl-auto=update
+
+CREATE TABLE campaigns (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name              VARCHAR(255) NOT NULL,
+    status            VARCHAR(32)  NOT NULL,
+    start_time        TIME(6),
+    end_time          TIME(6),
+    timezone          VARCHAR(255),
+    concurrency_limit INTEGER,
+    retry_count       INTEGER,
+    created_at        TIMESTAMP(6),
+    updated_at        TIMESTAMP(6)
+);
+
+CREATE SEQUENCE phone_numbers_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE phone_numbers (
+    id                BIGINT       NOT NULL PRIMARY KEY,
+    number            VARCHAR(255) NOT NULL,
+    status            VARCHAR(32)  NOT NULL,
+    campaign_id       BIGINT       NOT NULL,
+    external_call_id  VARCHAR(255),
+    retries_attempted INTEGER      NOT NULL,
+    last_attempt_time TIMESTAMP(6),
+    created_at        TIMESTAMP(6),
+    updated_at        TIMESTAMP(6),
+    CONSTRAINT fk_phone_numbers_campaign FOREIGN KEY (campaign_id) REFERENCES campaigns (id)
+);
+
+CREATE TABLE number_uploads (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    campaign_id       BIGINT      NOT NULL,
+    format            VARCHAR(16) NOT NULL,
+    status            VARCHAR(16) NOT NULL,
+    records_processed BIGINT      NOT NULL,
+    numbers_inserted  BIGINT      NOT NULL,
+    records_rejected  BIGINT      NOT NULL,
+    last_error        VARCHAR(1000),
+    created_at        TIMESTAMP(6),
+    updated_at        TIMESTAMP(6)
+);
@@ -0,0 +1,7 @@
+-- Serves findEligibleNumbers, findByCampaignIdAndStatus and the per-status counts:
+-- equality on (campaign_id, status) and rows already ordered by last_attempt_time
+CREATE INDEX idx_phone_numbers_campaign_status_attempt ON phone_numbers (campaign_id, status, last_attempt_time);
+
+-- Status callbacks and polls look calls up by the provider's call id
+CREATE INDEX idx_phone_numbers_external_call_id ON phone_numbers (external_call_id);
+
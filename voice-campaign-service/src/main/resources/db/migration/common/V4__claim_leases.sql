@@ -0,0 +1,21 @@
+-- Which instance reserved a number for dispatch and until when; cleared once the
+-- provider accepted the call. An expired lease on a call without a call id means the
+-- instance went away between reserving and placing it.
+ALTER TABLE phone_numbers ADD COLUMN lease_owner VARCHAR(64);
+ALTER TABLE phone_numbers ADD COLUMN lease_expires_at TIMESTAMP(6);
+
+CREATE INDEX idx_phone_numbers_lease_expires_at ON phone_numbers (lease_expires_at);
+
+-- Campaign to instance assignment, used when campaign.cluster.campaign-leases is enabled
+CREATE TABLE campaign_leases (
+    campaign_id BIGINT       NOT NULL PRIMARY KEY,
+    owner       VARCHAR(64)  NOT NULL,
+    expires_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_campaign_leases_campaign FOREIGN KEY (campaign_id) REFERENCES campaigns (id)
+);
+
+-- Live instances, renewed with the campaign leases; used to work out each instance's share
+CREATE TABLE cluster_members (
+    instance_id VARCHAR(64)  NOT NULL PRIMARY KEY,
+    expires_at  TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,2 @@
+-- Outbound caller ID per campaign, used to apply the carrier's per caller ID limits
+ALTER TABLE campaigns ADD COLUMN caller_id VARCHAR(32);
@@ -0,0 +1,20 @@
+-- Per-weekday calling windows; when a campaign has none, start_time/end_time apply every day.
+-- A window whose end is not after its start runs past midnight into the next day.
+CREATE TABLE campaign_business_hours (
+    campaign_id BIGINT      NOT NULL,
+    day_of_week VARCHAR(16) NOT NULL,
+    start_time  TIME(6)     NOT NULL,
+    end_time    TIME(6)     NOT NULL,
+    CONSTRAINT fk_campaign_business_hours_campaign FOREIGN KEY (campaign_id) REFERENCES campaigns (id)
+);
+
+CREATE INDEX idx_campaign_business_hours_campaign_id ON campaign_business_hours (campaign_id);
+
+-- Dates, in the campaign's timezone, on which no calling window opens
+CREATE TABLE campaign_holidays (
+    campaign_id BIGINT NOT NULL,
+    holiday     DATE   NOT NULL,
+    CONSTRAINT fk_campaign_holidays_campaign FOREIGN KEY (campaign_id) REFERENCES campaigns (id)
+);
+
+CREATE INDEX idx_campaign_holidays_campaign_id ON campaign_holidays (campaign_id);
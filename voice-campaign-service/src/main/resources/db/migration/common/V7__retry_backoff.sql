@@ -0,0 +1,17 @@
+-- When a number may next be dialled: set for pending numbers and for failed numbers with
+-- retries left (after their backoff), NULL otherwise. The claim query is a range scan on
+-- (campaign_id, next_attempt_at) instead of filtering and sorting every failed row.
+ALTER TABLE phone_numbers ADD COLUMN next_attempt_at TIMESTAMP(6);
+ALTER TABLE phone_numbers ADD COLUMN failure_reason VARCHAR(32);
+
+UPDATE phone_numbers SET next_attempt_at = COALESCE(last_attempt_time, created_at, CURRENT_TIMESTAMP)
+WHERE status = 'PENDING'
+   OR (status = 'FAILED'
+       AND retries_attempted < (SELECT c.retry_count FROM campaigns c WHERE c.id = phone_numbers.campaign_id));
+
+CREATE INDEX idx_phone_numbers_next_attempt ON phone_numbers (campaign_id, next_attempt_at);
+
+-- Per-campaign retry backoff; NULL uses the campaign.retry.* defaults
+ALTER TABLE campaigns ADD COLUMN retry_backoff VARCHAR(16);
+ALTER TABLE campaigns ADD COLUMN retry_delay_ms BIGINT;
+ALTER TABLE campaigns ADD COLUMN retry_max_delay_ms BIGINT;
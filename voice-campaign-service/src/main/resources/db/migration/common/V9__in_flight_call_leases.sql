@@ -0,0 +1,5 @@
+-- lease_expires_at now also covers placed calls (until the max call duration), so calls
+-- whose outcome never arrives are reaped. Calls placed before this have no lease; expire
+-- them now so the reaper checks them with the provider on its first run.
+UPDATE phone_numbers SET lease_expires_at = CURRENT_TIMESTAMP
+WHERE status = 'IN_PROGRESS' AND lease_expires_at IS NULL;
@@ -0,0 +1,49 @@
+-- phone_numbers becomes 16 hash partitions on campaign_id. Every hot query filters on one
+-- campaign, so it is planned against a single partition with its own, smaller indexes,
+-- and vacuum works partition by partition. Rows are copied over once; on a large table
+-- run this in a maintenance window.
+CREATE TABLE phone_numbers_partitioned (
+    id                BIGINT       NOT NULL,
+    number            VARCHAR(255) NOT NULL,
+    status            VARCHAR(32)  NOT NULL,
+    campaign_id       BIGINT       NOT NULL,
+    external_call_id  VARCHAR(255),
+    retries_attempted INTEGER      NOT NULL,
+    last_attempt_time TIMESTAMP(6),
+    created_at        TIMESTAMP(6),
+    updated_at        TIMESTAMP(6),
+    lease_owner       VARCHAR(64),
+    lease_expires_at  TIMESTAMP(6),
+    next_attempt_at   TIMESTAMP(6),
+    failure_reason    VARCHAR(32),
+    -- The key of a partitioned table has to include the partition column. It also serves
+    -- the call listing and export, in place of idx_phone_numbers_campaign_id.
+    CONSTRAINT pk_phone_numbers PRIMARY KEY (campaign_id, id),
+    CONSTRAINT fk_phone_numbers_campaign FOREIGN KEY (campaign_id) REFERENCES campaigns (id)
+) PARTITION BY HASH (campaign_id);
+
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE phone_numbers_p%s PARTITION OF phone_numbers_partitioned '
+                       'FOR VALUES WITH (MODULUS 16, REMAINDER %s)', i, i);
+    END LOOP;
+END $$;
+
+INSERT INTO phone_numbers_partitioned (id, number, status, campaign_id, external_call_id, retries_attempted,
+                                       last_attempt_time, created_at, updated_at, lease_owner, lease_expires_at,
+                                       next_attempt_at, failure_reason)
+SELECT id, number, status, campaign_id, external_call_id, retries_attempted, last_attempt_time, created_at,
+       updated_at, lease_owner, lease_expires_at, next_attempt_at, failure_reason
+FROM phone_numbers;
+
+DROP TABLE phone_numbers;
+ALTER TABLE phone_numbers_partitioned RENAME TO phone_numbers;
+
+-- Created on every partition
+CREATE INDEX idx_phone_numbers_campaign_status_attempt ON phone_numbers (campaign_id, status, last_attempt_time);
+CREATE INDEX idx_phone_numbers_external_call_id ON phone_numbers (external_call_id);
+CREATE INDEX idx_phone_numbers_lease_expires_at ON phone_numbers (lease_expires_at);
+CREATE INDEX idx_phone_numbers_next_attempt ON phone_numbers (campaign_id, next_attempt_at);
+-- Updates by id alone probe each partition's index on id
+CREATE INDEX idx_phone_numbers_id ON phone_numbers (id);
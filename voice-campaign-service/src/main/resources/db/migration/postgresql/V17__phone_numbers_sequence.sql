@@ -0,0 +1,10 @@
+-- Databases upgraded from the old ddl-auto=update schema are baselined at V1, so they never
+-- got the id sequence V1 creates. Create it if missing and move it past the existing ids.
+-- Hibernate's pooled optimizer hands out the 50 ids up to each value it draws, so the next
+-- value is one full block above max(id).
+CREATE SEQUENCE IF NOT EXISTS phone_numbers_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE phone_numbers_seq INCREMENT BY 50;
+SELECT setval('phone_numbers_seq',
+              GREATEST(COALESCE((SELECT max(id) FROM phone_numbers), 0) + 50,
+                       (SELECT last_value FROM phone_numbers_seq) + 50),
+              false);
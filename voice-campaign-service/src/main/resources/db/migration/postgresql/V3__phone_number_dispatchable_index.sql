@@ -0,0 +1,6 @@
+-- Partial index over the rows findEligibleNumbers can return. Completed and in-flight
+-- calls, which make up most of a long-running campaign, are left out, and the
+-- NULLS FIRST ordering matches the query so no sort is needed.
+CREATE INDEX idx_phone_numbers_dispatchable
+    ON phone_numbers (campaign_id, last_attempt_time ASC NULLS FIRST, retries_attempted)
+    WHERE status IN ('PENDING', 'FAILED');
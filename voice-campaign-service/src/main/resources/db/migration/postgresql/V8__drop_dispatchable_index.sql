@@ -0,0 +1,2 @@
+-- Superseded by idx_phone_numbers_next_attempt (V7): eligible numbers are now found by next_attempt_at
+DROP INDEX IF EXISTS idx_phone_numbers_dispatchable;
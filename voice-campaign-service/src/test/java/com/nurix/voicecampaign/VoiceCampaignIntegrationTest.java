@@ -26,6 +26,8 @@ import java.util.stream.IntStream;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -126,6 +128,27 @@ class VoiceCampaignIntegrationTest {
         });
     }
 
+    @Test
+    void testCampaignCompletesWhenAllCallsFinish() {
+        // Every call needs its own id for the poller to match it
+        doAnswer(inv -> UUID.randomUUID().toString()).when(callService).triggerCall(anyString());
+        doReturn(CallStatus.COMPLETED).when(callService).getCallStatus(anyString());
+
+        CampaignRequest request = new CampaignRequest();
+        request.setName("Completion Test");
+        request.setPhoneNumbers(Arrays.asList("7770000001", "7770000002", "7770000003"));
+        request.setConcurrencyLimit(2);
+        request.setRetryCount(1);
+
+        CampaignResponse campaign = campaignService.createCampaign(request);
+        campaignService.startCampaign(campaign.getId());
+
+        // Calls are finished by the status poller
+        await().atMost(30, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(campaignService.getCampaign(campaign.getId()).getStatus()).isEqualTo(CampaignStatus.COMPLETED));
+        assertThat(phoneNumberRepository.countByCampaignIdAndStatus(campaign.getId(), CallStatus.COMPLETED)).isEqualTo(3);
+    }
+
     @Test
     void testBusinessHours() {
         CampaignRequest request = new CampaignRequest();
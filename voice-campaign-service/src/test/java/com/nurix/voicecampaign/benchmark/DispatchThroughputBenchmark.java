@@ -0,0 +1,140 @@
+package com.nurix.voicecampaign.benchmark;
+
+import com.nurix.voicecampaign.VoiceCampaignServiceApplication;
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.dto.CampaignResponse;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.service.CallService;
+import com.nurix.voicecampaign.service.CampaignService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the event-driven dispatcher with the old 5 second fixed-rate poller.
+ * <p>
+ * Calls last a fixed {@value #CALL_DURATION_MS} ms and statuses are polled every
+ * {@value #STATUS_POLL_MS} ms, so the difference between the two runs is the time a
+ * freed slot waits before it is refilled. Not matched by the default Surefire includes; run with
+ * {@code ./mvnw test -Dtest=DispatchThroughputBenchmark}.
+ */
+@Tag("benchmark")
+class DispatchThroughputBenchmark {
+
+    private static final int NUMBERS = 5000;
+    private static final int CONCURRENCY_LIMIT = 20;
+    private static final long CALL_DURATION_MS = 300;
+    private static final long STATUS_POLL_MS = 100;
+    private static final long WINDOW_MS = 20_000;
+    private static final long SAMPLE_INTERVAL_MS = 50;
+
+    @Test
+    void compareEventDrivenDispatchWithFixedRatePoller() throws InterruptedException {
+        Result poller = run("fixed-rate poller (5s)", false, 5000);
+        Result eventDriven = run("event-driven", true, 30000);
+
+        System.out.printf("%n%-24s %12s %12s %16s%n", "mode", "calls", "calls/s", "slot utilisation");
+        for (Result result : new Result[]{poller, eventDriven}) {
+            System.out.printf("%-24s %12d %12.1f %15.1f%%%n",
+                    result.mode(), result.callsPlaced(), result.callsPerSecond(), result.slotUtilisation() * 100);
+        }
+
+        assertThat(eventDriven.callsPerSecond()).isGreaterThan(poller.callsPerSecond());
+        assertThat(eventDriven.slotUtilisation()).isGreaterThan(poller.slotUtilisation());
+    }
+
+    private Result run(String mode, boolean eventDriven, long sweepIntervalMs) throws InterruptedException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(VoiceCampaignServiceApplication.class, StubTelephonyConfig.class)
+                .web(org.springframework.boot.WebApplicationType.NONE)
+                // Command line arguments so they take precedence over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+                        "--campaign.dispatch.event-driven=" + eventDriven,
+                        "--campaign.scheduler.sweep-interval-ms=" + sweepIntervalMs,
+                        "--campaign.scheduler.status-poll-interval-ms=" + STATUS_POLL_MS,
+                        "--campaign.scheduler.status-poll-min-age-ms=0",
+                        "--telephony.mock.callback-url=",
+                        "--logging.level.com.nurix.voicecampaign=WARN");
+        try {
+            FixedDurationCallService callService = context.getBean(FixedDurationCallService.class);
+            CampaignService campaignService = context.getBean(CampaignService.class);
+
+            CampaignRequest request = new CampaignRequest();
+            request.setName("Benchmark " + mode);
+            request.setPhoneNumbers(IntStream.range(0, NUMBERS).mapToObj(i -> String.valueOf(5_550_000_000L + i)).collect(Collectors.toList()));
+            request.setConcurrencyLimit(CONCURRENCY_LIMIT);
+            request.setRetryCount(0);
+            CampaignResponse campaign = campaignService.createCampaign(request);
+
+            long startPlaced = callService.placed.get();
+            campaignService.startCampaign(campaign.getId());
+
+            long samples = 0;
+            long activeSum = 0;
+            long deadline = System.currentTimeMillis() + WINDOW_MS;
+            while (System.currentTimeMillis() < deadline) {
+                activeSum += callService.activeCalls();
+                samples++;
+                Thread.sleep(SAMPLE_INTERVAL_MS);
+            }
+
+            long placed = callService.placed.get() - startPlaced;
+            double utilisation = (double) activeSum / samples / CONCURRENCY_LIMIT;
+            return new Result(mode, placed, placed * 1000.0 / WINDOW_MS, utilisation);
+        } finally {
+            context.close();
+        }
+    }
+
+    private record Result(String mode, long callsPlaced, double callsPerSecond, double slotUtilisation) {
+    }
+
+    @TestConfiguration
+    static class StubTelephonyConfig {
+        @Bean
+        @Primary
+        FixedDurationCallService fixedDurationCallService() {
+            return new FixedDurationCallService();
+        }
+    }
+
+    // Every call completes exactly CALL_DURATION_MS after it was placed
+    static class FixedDurationCallService extends CallService {
+        private final Map<String, Long> endTimes = new ConcurrentHashMap<>();
+        private final AtomicLong placed = new AtomicLong();
+
+        @Override
+        public String triggerCall(String phoneNumber) {
+            String callId = UUID.randomUUID().toString();
+            endTimes.put(callId, System.currentTimeMillis() + CALL_DURATION_MS);
+            placed.incrementAndGet();
+            return callId;
+        }
+
+        @Override
+        public CallStatus getCallStatus(String callId) {
+            Long endTime = endTimes.get(callId);
+            if (endTime == null) {
+                return null;
+            }
+            return System.currentTimeMillis() < endTime ? CallStatus.IN_PROGRESS : CallStatus.COMPLETED;
+        }
+
+        long activeCalls() {
+            long now = System.currentTimeMillis();
+            return endTimes.values().stream().filter(end -> end > now).count();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.nurix.voicecampaign.benchmark;
+
+import com.nurix.voicecampaign.VoiceCampaignServiceApplication;
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.dto.CampaignResponse;
+import com.nurix.voicecampaign.service.CampaignService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures how fast calls are placed when every provider request takes
+ * {@value #PROVIDER_LATENCY_MS} ms, with one request in flight at a time (the old
+ * synchronous loop) versus the concurrent trigger pipeline. Not matched by the default
+ * Surefire includes; run with {@code ./mvnw test -Dtest=TriggerPipelineBenchmark}.
+ */
+@Tag("benchmark")
+class TriggerPipelineBenchmark {
+
+    private static final int CALLS = 200;
+    private static final long PROVIDER_LATENCY_MS = 100;
+    private static final long TIMEOUT_MS = 60_000;
+
+    @Test
+    void compareSequentialWithConcurrentTriggers() throws InterruptedException {
+        double sequential = run(1);
+        double concurrent = run(64);
+
+        System.out.printf("%n%-28s %12s%n", "max in-flight triggers", "calls/s");
+        System.out.printf("%-28d %12.1f%n", 1, sequential);
+        System.out.printf("%-28d %12.1f%n", 64, concurrent);
+
+        assertThat(concurrent).isGreaterThan(sequential * 5);
+    }
+
+    private double run(int maxInFlight) throws InterruptedException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(VoiceCampaignServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+                        "--campaign.dispatch.max-in-flight-triggers=" + maxInFlight,
+                        "--telephony.mock.trigger-latency=fixed:" + PROVIDER_LATENCY_MS,
+                        "--campaign.scheduler.status-poll-interval-ms=600000",
+                        "--telephony.mock.callback-url=",
+                        "--logging.level.com.nurix.voicecampaign=WARN");
+        try {
+            CampaignService campaignService = context.getBean(CampaignService.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            CampaignRequest request = new CampaignRequest();
+            request.setName("Trigger benchmark");
+            request.setPhoneNumbers(IntStream.range(0, CALLS).mapToObj(i -> String.valueOf(5_550_000_000L + i)).collect(Collectors.toList()));
+            request.setConcurrencyLimit(CALLS);
+            request.setRetryCount(0);
+            CampaignResponse campaign = campaignService.createCampaign(request);
+
+            long start = System.currentTimeMillis();
+            campaignService.startCampaign(campaign.getId());
+
+            long placed = 0;
+            while (placed < CALLS && System.currentTimeMillis() - start < TIMEOUT_MS) {
+                Thread.sleep(20);
+                placed = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM in_flight_calls", Long.class);
+            }
+            return placed * 1000.0 / (System.currentTimeMillis() - start);
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.nurix.voicecampaign.repository;
+
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.Campaign;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import com.nurix.voicecampaign.model.PhoneNumber;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails when the hot phone_numbers queries stop being served by the indexes created in
+ * db/migration. The SQL Hibernate actually generates for each repository method is
+ * captured and run through EXPLAIN.
+ * <p>
+ * Runs against H2 by default. On PostgreSQL phone_numbers is hash-partitioned (V12), so a
+ * plan uses the index each partition got from its parent, named after the partition and
+ * its columns, and the (campaign_id, id) primary key stands in for
+ * idx_phone_numbers_campaign_id. To check PostgreSQL, point it at a local database:
+ * {@code ./mvnw test -Dtest=QueryPlanTest -Dspring.datasource.url=jdbc:postgresql://localhost:5432/voice_campaign
+ * -Dspring.datasource.username=nurix -Dspring.datasource.password=password
+ * -Dspring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect}
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.nurix.voicecampaign.repository.QueryPlanTest$RecordingStatementInspector")
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private PhoneNumberRepository phoneNumberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Campaign campaign;
+
+    private boolean postgres;
+
+    @BeforeEach
+    void setup() {
+        postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres"));
+        campaign = campaignRepository.save(Campaign.builder()
+                .name("Query Plan")
+                .status(CampaignStatus.PAUSED)
+                .concurrencyLimit(10)
+                .retryCount(3)
+                .build());
+        phoneNumberRepository.saveAll(IntStream.range(0, 500)
+                .mapToObj(i -> PhoneNumber.builder()
+                        .number("555" + i)
+                        .status(CallStatus.values()[i % CallStatus.values().length])
+                        .campaign(campaign)
+                        .build())
+                .collect(Collectors.toList()));
+        // Give the optimizer real statistics, as a production database would have
+        jdbcTemplate.execute("ANALYZE");
+        statements.clear();
+    }
+
+    @Test
+    void testFindEligibleNumbersUsesIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        List<DispatchCandidate> candidates = phoneNumberRepository.findEligibleNumbers(campaign.getId(), now, 10);
+
+        assertThat(candidates).hasSize(10).allSatisfy(candidate -> {
+            assertThat(candidate.getStatus()).isEqualTo(CallStatus.PENDING);
+            assertThat(candidate.getNextAttemptAt()).isBeforeOrEqualTo(now);
+        });
+
+        assertThat(explain(capturedQuery(), campaign.getId(), now, 10))
+                .containsPattern(phoneNumbersIndex("idx_phone_numbers_next_attempt", "campaign_id_next_attempt_at_idx"));
+    }
+
+    @Test
+    void testFindByCampaignIdAndStatusUsesIndex() {
+        phoneNumberRepository.findByCampaignIdAndStatus(campaign.getId(), CallStatus.IN_PROGRESS, PageRequest.of(0, 100));
+
+        assertThat(explain(capturedQuery(), campaign.getId(), CallStatus.IN_PROGRESS.name(), 100))
+                .containsPattern(phoneNumbersIndex("idx_phone_numbers_campaign_status", "campaign_id_status_idx"));
+    }
+
+    @Test
+    void testCountByCampaignIdAndStatusUsesIndex() {
+        phoneNumberRepository.countByCampaignIdAndStatus(campaign.getId(), CallStatus.COMPLETED);
+
+        assertThat(explain(capturedQuery(), campaign.getId(), CallStatus.COMPLETED.name()))
+                .containsPattern(phoneNumbersIndex("idx_phone_numbers_campaign_status", "campaign_id_status_idx"));
+    }
+
+    @Test
+    void testFindCallRecordsUsesIndex() {
+        phoneNumberRepository.findCallRecords(campaign.getId(), 0L,
+                EnumSet.allOf(CallStatus.class).stream().map(Enum::name).toList(), 100);
+
+        List<Object> parameters = new ArrayList<>(List.of(campaign.getId(), 0L));
+        EnumSet.allOf(CallStatus.class).forEach(status -> parameters.add(status.name()));
+        parameters.add(100);
+        assertThat(explain(capturedQuery(), parameters.toArray()))
+                .containsPattern(phoneNumbersIndex("idx_phone_numbers_campaign_id", "pkey"));
+    }
+
+    @Test
+    void testFindInProgressStartedBeforeUsesIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        phoneNumberRepository.findInProgressStartedBefore(campaign.getId(), now, 100);
+
+        assertThat(explain(capturedQuery("in_flight_calls"), campaign.getId(), now, 100))
+                .contains("idx_in_flight_calls_campaign_started");
+    }
+
+    /**
+     * The index as it shows up in a plan: by name on H2, and as the copy on one partition,
+     * named {@code phone_numbers_p<n>_<partitionSuffix>}, on PostgreSQL.
+     */
+    private String phoneNumbersIndex(String name, String partitionSuffix) {
+        return postgres ? "phone_numbers_p\\d+_" + partitionSuffix : Pattern.quote(name);
+    }
+
+    private String capturedQuery() {
+        return capturedQuery("phone_numbers");
+    }
+
+    private String capturedQuery(String table) {
+        return statements.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).contains("from " + table))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError("No " + table + " query captured: " + statements));
+    }
+
+    private String explain(String sql, Object... parameters) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            if (postgres) {
+                // The test tables are tiny; without this the planner rightly prefers a sequential scan
+                connection.createStatement().execute("SET enable_seqscan = off");
+            }
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString().toLowerCase(Locale.ROOT);
+            } finally {
+                if (postgres) {
+                    connection.createStatement().execute("RESET enable_seqscan");
+                }
+            }
+        });
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
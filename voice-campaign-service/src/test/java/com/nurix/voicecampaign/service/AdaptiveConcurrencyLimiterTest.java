@@ -0,0 +1,153 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.Campaign;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private MeterRegistry meterRegistry;
+    private RunningCampaignRegistry runningCampaignRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+    private Campaign campaign;
+    private RunningCampaign running;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        campaign = Campaign.builder().id(1L).concurrencyLimit(40).build();
+        running = RunningCampaign.of(campaign, ZoneId.systemDefault());
+        runningCampaignRegistry = mock(RunningCampaignRegistry.class);
+        when(runningCampaignRegistry.get(1L)).thenReturn(running);
+        limiter = new AdaptiveConcurrencyLimiter(meterRegistry, runningCampaignRegistry);
+        ReflectionTestUtils.setField(limiter, "adaptive", true);
+        ReflectionTestUtils.setField(limiter, "minConcurrency", 2);
+        ReflectionTestUtils.setField(limiter, "latencyThresholdMs", 1000L);
+        ReflectionTestUtils.setField(limiter, "maxFailureRate", 0.5);
+        ReflectionTestUtils.setField(limiter, "decreaseFactor", 0.5);
+        ReflectionTestUtils.setField(limiter, "increaseStep", 5);
+        ReflectionTestUtils.setField(limiter, "minSamples", 10);
+    }
+
+    @Test
+    void testSlowProviderHalvesAndHealthyProviderGrowsBack() {
+        assertThat(limiter.limitFor(running)).isEqualTo(40);
+
+        triggers(10, 1500);
+        limiter.adjust();
+        assertThat(limiter.limitFor(running)).isEqualTo(20);
+        assertThat(meterRegistry.get("campaign.concurrency.effective_limit").tag("campaign", "1").gauge().value()).isEqualTo(20.0);
+
+        triggers(10, 100);
+        limiter.adjust();
+        assertThat(limiter.limitFor(running)).isEqualTo(25);
+
+        for (int i = 0; i < 10; i++) {
+            triggers(10, 100);
+            limiter.adjust();
+        }
+        // Never above the configured limit
+        assertThat(limiter.limitFor(running)).isEqualTo(40);
+    }
+
+    @Test
+    void testFailedCallsShrinkTheLimitDownToTheMinimum() {
+        limiter.limitFor(running);
+
+        for (int i = 0; i < 10; i++) {
+            finish(4, CallStatus.COMPLETED);
+            finish(8, CallStatus.FAILED);
+            limiter.adjust();
+        }
+
+        assertThat(limiter.limitFor(running)).isEqualTo(2);
+        assertThat(limiter.currentLimit(campaign)).isEqualTo(2);
+    }
+
+    @Test
+    void testQuietIntervalsLeaveTheLimitAlone() {
+        limiter.limitFor(running);
+
+        triggers(9, 5000);
+        limiter.adjust();
+
+        assertThat(limiter.limitFor(running)).isEqualTo(40);
+    }
+
+    @Test
+    void testDisabledUsesConfiguredLimit() {
+        ReflectionTestUtils.setField(limiter, "adaptive", false);
+
+        assertThat(limiter.limitFor(running)).isEqualTo(40);
+        triggers(10, 5000);
+        limiter.adjust();
+
+        assertThat(limiter.currentLimit(campaign)).isEqualTo(40);
+        assertThat(meterRegistry.find("campaign.concurrency.effective_limit").gauge()).isNull();
+    }
+
+    @Test
+    void testCompletedCampaignIsForgotten() {
+        limiter.limitFor(running);
+        triggers(10, 1500);
+        limiter.adjust();
+
+        limiter.onCampaignStatusChanged(new CampaignStatusChangedEvent(1L, CampaignStatus.RUNNING, CampaignStatus.COMPLETED));
+
+        assertThat(limiter.currentLimit(campaign)).isEqualTo(40);
+        assertThat(meterRegistry.find("campaign.concurrency.effective_limit").gauge()).isNull();
+    }
+
+    @Test
+    void testPausedCampaignIsForgotten() {
+        limiter.limitFor(running);
+        triggers(10, 1500);
+        limiter.adjust();
+
+        limiter.onCampaignStatusChanged(new CampaignStatusChangedEvent(1L, CampaignStatus.RUNNING, CampaignStatus.PAUSED));
+
+        assertThat(limiter.currentLimit(campaign)).isEqualTo(40);
+        assertThat(meterRegistry.find("campaign.concurrency.effective_limit").gauge()).isNull();
+    }
+
+    @Test
+    void testCampaignStoppedElsewhereIsPrunedOnAdjust() {
+        limiter.limitFor(running);
+        triggers(10, 1500);
+        limiter.adjust();
+        assertThat(limiter.currentLimit(campaign)).isEqualTo(20);
+
+        // Paused or completed by another instance, so no event here
+        when(runningCampaignRegistry.get(1L)).thenReturn(null);
+        limiter.adjust();
+
+        assertThat(limiter.currentLimit(campaign)).isEqualTo(40);
+        assertThat(meterRegistry.find("campaign.concurrency.effective_limit").gauge()).isNull();
+    }
+
+    private void triggers(int count, long latencyMs) {
+        for (int i = 0; i < count; i++) {
+            limiter.recordTrigger(1L, TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        }
+    }
+
+    private void finish(int count, CallStatus status) {
+        for (int i = 0; i < count; i++) {
+            limiter.onCallStatusChanged(new CallStatusChangedEvent(1L, (long) i, CallStatus.IN_PROGRESS, status));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.model.BusinessHours;
+import com.nurix.voicecampaign.model.Campaign;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BusinessHoursCalendarTest {
+
+    private static final String TIMEZONE = "America/New_York";
+    private static final ZoneId ZONE = ZoneId.of(TIMEZONE);
+
+    private BusinessHoursCalendar calendar;
+
+    @BeforeEach
+    void setup() {
+        calendar = new BusinessHoursCalendar(new SimpleMeterRegistry());
+        calendar.registerMetrics();
+    }
+
+    @Test
+    void testWindowCrossingMidnight() {
+        Campaign campaign = campaign(1L, LocalTime.of(22, 0), LocalTime.of(2, 0), List.of(), Set.of());
+        BusinessHoursSchedule schedule = BusinessHoursSchedule.of(campaign, ZONE);
+
+        assertThat(schedule.stateAt(at(2026, 3, 10, 23, 0)))
+                .isEqualTo(new BusinessHoursSchedule.State(true, at(2026, 3, 11, 2, 0)));
+        assertThat(schedule.stateAt(at(2026, 3, 11, 1, 59)).open()).isTrue();
+        assertThat(schedule.stateAt(at(2026, 3, 11, 12, 0)))
+                .isEqualTo(new BusinessHoursSchedule.State(false, at(2026, 3, 11, 22, 0)));
+    }
+
+    @Test
+    void testWeekdayHoursAndHolidays() {
+        // 2026-03-13 is a Friday
+        List<BusinessHours> hours = List.of(
+                new BusinessHours(DayOfWeek.FRIDAY, LocalTime.of(9, 0), LocalTime.of(17, 0)),
+                new BusinessHours(DayOfWeek.MONDAY, LocalTime.of(10, 0), LocalTime.of(12, 0)));
+        Campaign campaign = campaign(1L, null, null, hours, Set.of(LocalDate.of(2026, 3, 16)));
+        BusinessHoursSchedule schedule = BusinessHoursSchedule.of(campaign, ZONE);
+
+        assertThat(schedule.stateAt(at(2026, 3, 13, 16, 0)))
+                .isEqualTo(new BusinessHoursSchedule.State(true, at(2026, 3, 13, 17, 0)));
+        // Closed over the weekend and on the Monday holiday, open again on Friday
+        assertThat(schedule.stateAt(at(2026, 3, 13, 17, 0)))
+                .isEqualTo(new BusinessHoursSchedule.State(false, at(2026, 3, 20, 9, 0)));
+    }
+
+    @Test
+    void testNoHoursIsAlwaysOpen() {
+        BusinessHoursSchedule schedule = BusinessHoursSchedule.of(campaign(1L, null, null, List.of(), Set.of()), ZONE);
+
+        assertThat(schedule.stateAt(at(2026, 3, 13, 3, 0))).isEqualTo(new BusinessHoursSchedule.State(true, null));
+    }
+
+    @Test
+    void testAdvanceReportsOpenedCampaigns() {
+        Campaign morning = campaign(1L, LocalTime.of(9, 0), LocalTime.of(17, 0), List.of(), Set.of());
+        Campaign evening = campaign(2L, LocalTime.of(18, 0), LocalTime.of(20, 0), List.of(), Set.of());
+        Instant beforeOpening = at(2026, 3, 13, 8, 0);
+
+        assertThat(calendar.isOpen(RunningCampaign.of(morning, ZONE), beforeOpening)).isFalse();
+        assertThat(calendar.isOpen(RunningCampaign.of(evening, ZONE), beforeOpening)).isFalse();
+        assertThat(calendar.isClosed(1L)).isTrue();
+        assertThat(calendar.isClosed(3L)).isFalse(); // unknown campaigns are checked on dispatch
+
+        assertThat(calendar.advance(at(2026, 3, 13, 8, 59))).isEmpty();
+        assertThat(calendar.advance(at(2026, 3, 13, 9, 0))).containsExactly(1L);
+        assertThat(calendar.isClosed(1L)).isFalse();
+        assertThat(calendar.advance(at(2026, 3, 13, 18, 30))).containsExactly(2L);
+        assertThat(calendar.isClosed(1L)).isTrue();
+
+        // Stopped campaigns are dropped along with their pending transitions
+        calendar.remove(1L);
+        assertThat(calendar.advance(at(2026, 3, 14, 9, 30))).isEmpty();
+    }
+
+    @Test
+    void testNewSnapshotRebuildsTheEntry() {
+        Campaign campaign = campaign(1L, LocalTime.of(9, 0), LocalTime.of(17, 0), List.of(), Set.of());
+        Instant noon = at(2026, 3, 13, 12, 0);
+        assertThat(calendar.isOpen(RunningCampaign.of(campaign, ZONE), noon)).isTrue();
+
+        // Hours changed elsewhere; the registry reloads the campaign with a new schedule
+        campaign.setStartTime(LocalTime.of(13, 0));
+        assertThat(calendar.isOpen(RunningCampaign.of(campaign, ZONE), noon)).isFalse();
+        assertThat(calendar.advance(at(2026, 3, 13, 13, 0))).containsExactly(1L);
+    }
+
+    private static Campaign campaign(Long id, LocalTime start, LocalTime end, List<BusinessHours> hours, Set<LocalDate> holidays) {
+        return Campaign.builder()
+                .id(id)
+                .startTime(start)
+                .endTime(end)
+                .timezone(TIMEZONE)
+                .businessHours(new ArrayList<>(hours))
+                .holidays(new HashSet<>(holidays))
+                .build();
+    }
+
+    private static Instant at(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).atZone(ZONE).toInstant();
+    }
+}
@@ -0,0 +1,157 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.dto.CallAttemptResponse;
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.FailureReason;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Background flushing is effectively off; each test flushes explicitly
+@SpringBootTest(properties = {"campaign.call-events.flush-interval-ms=600000", "campaign.call-attempts.flush-interval-ms=600000"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CallAttemptLogTest {
+
+    @Autowired
+    private CallAttemptLog callAttemptLog;
+
+    @Autowired
+    private CallEventService callEventService;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Long campaignId;
+    private Long phoneNumberId;
+
+    @BeforeEach
+    void setup() {
+        CampaignRequest request = new CampaignRequest();
+        request.setName("Attempts");
+        request.setPhoneNumbers(List.of("5550005000"));
+        request.setRetryCount(3);
+        campaignId = campaignService.createCampaign(request).getId();
+        phoneNumberId = jdbcTemplate.queryForObject("SELECT id FROM phone_numbers WHERE campaign_id = ?", Long.class, campaignId);
+    }
+
+    @Test
+    void testEveryAttemptIsKeptWhileTheNumberHoldsTheLatest() throws Exception {
+        LocalDateTime firstStart = LocalDateTime.now().minusSeconds(30).truncatedTo(ChronoUnit.MILLIS);
+        placeCall("attempt-1", 1, firstStart);
+        callEventService.record("attempt-1", CallStatus.FAILED, FailureReason.BUSY, Instant.now());
+        callEventService.flush();
+
+        placeCall("attempt-2", 2, LocalDateTime.now().minusSeconds(10));
+        callEventService.record("attempt-2", CallStatus.COMPLETED, Instant.now());
+        callEventService.flush();
+        callAttemptLog.flush();
+
+        List<CallAttemptResponse> attempts = callAttemptLog.findAttempts(campaignId, phoneNumberId);
+        assertThat(attempts).extracting(CallAttemptResponse::getExternalCallId).containsExactly("attempt-1", "attempt-2");
+        assertThat(attempts.get(0).getStatus()).isEqualTo(CallStatus.FAILED);
+        assertThat(attempts.get(0).getFailureReason()).isEqualTo(FailureReason.BUSY);
+        assertThat(attempts.get(0).getStartedAt()).isEqualTo(firstStart);
+        assertThat(attempts.get(0).getDurationMs()).isGreaterThanOrEqualTo(30_000);
+        assertThat(attempts.get(1).getStatus()).isEqualTo(CallStatus.COMPLETED);
+        assertThat(attempts.get(1).getFailureReason()).isNull();
+
+        // Finished calls leave in_flight_calls; the listing shows the latest attempt from the history
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM in_flight_calls WHERE phone_number_id = ?",
+                Long.class, phoneNumberId)).isZero();
+        mockMvc.perform(get("/campaigns/{id}/calls", campaignId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.calls[0].externalCallId").value("attempt-2"));
+
+        mockMvc.perform(get("/campaigns/{id}/calls/{phoneNumberId}/attempts", campaignId, phoneNumberId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].attempt").value(1))
+                .andExpect(jsonPath("$[1].attempt").value(2));
+    }
+
+    @Test
+    void testRolledBackOutcomeLeavesNoHistory() {
+        CallAttempt attempt = new CallAttempt(campaignId, phoneNumberId, 1, "rolled-back", CallStatus.COMPLETED, null,
+                LocalDateTime.now().minusSeconds(5), LocalDateTime.now());
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            callAttemptLog.append(List.of(attempt));
+            tx.setRollbackOnly();
+        });
+        callAttemptLog.flush();
+        assertThat(callAttemptLog.findAttempts(campaignId, phoneNumberId)).isEmpty();
+
+        transactionTemplate.executeWithoutResult(tx -> callAttemptLog.append(List.of(attempt)));
+        callAttemptLog.flush();
+        assertThat(callAttemptLog.findAttempts(campaignId, phoneNumberId)).singleElement()
+                .satisfies(stored -> assertThat(stored.getExternalCallId()).isEqualTo("rolled-back"));
+    }
+
+    @Test
+    void testQueueIsCappedWhileInsertsFail() {
+        JdbcTemplate unavailable = mock(JdbcTemplate.class);
+        doThrow(new DataAccessResourceFailureException("Database down"))
+                .when(unavailable).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CallAttemptLog log = new CallAttemptLog(unavailable, meterRegistry);
+        ReflectionTestUtils.setField(log, "batchSize", 10);
+        ReflectionTestUtils.setField(log, "maxQueued", 3);
+        CallAttempt attempt = new CallAttempt(campaignId, phoneNumberId, 1, "lost", CallStatus.COMPLETED, null,
+                LocalDateTime.now().minusSeconds(5), LocalDateTime.now());
+
+        log.append(List.of(attempt, attempt));
+        log.flush();
+        log.append(List.of(attempt, attempt));
+        log.flush();
+
+        // The failed batch keeps its place and is retried; only what doesn't fit beside it is dropped
+        verify(unavailable, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        assertThat(meterRegistry.counter("call.attempts.dropped").count()).isEqualTo(1);
+    }
+
+    private void placeCall(String callId, int attempt, LocalDateTime startedAt) {
+        jdbcTemplate.update("UPDATE phone_numbers SET status = 'IN_PROGRESS', retries_attempted = ?, next_attempt_at = NULL " +
+                "WHERE id = ?", attempt, phoneNumberId);
+        jdbcTemplate.update("INSERT INTO in_flight_calls (external_call_id, campaign_id, phone_number_id, attempt, started_at) " +
+                "VALUES (?, ?, ?, ?, ?)", callId, campaignId, phoneNumberId, attempt, Timestamp.valueOf(startedAt));
+    }
+}
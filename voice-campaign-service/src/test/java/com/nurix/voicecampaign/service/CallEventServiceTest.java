@@ -0,0 +1,143 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.dto.CampaignResponse;
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Background flushing is effectively off; each test flushes explicitly
+@SpringBootTest(properties = "campaign.call-events.flush-interval-ms=600000")
+@AutoConfigureMockMvc
+@RecordApplicationEvents
+@ActiveProfiles("test")
+class CallEventServiceTest {
+
+    @Autowired
+    private CallEventService callEventService;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    // In-flight rows are gone once the outcome is stored
+    private final Map<String, Long> phoneNumberIds = new HashMap<>();
+
+    @Test
+    void testDuplicateAndLateEventsAreAppliedOnce() throws Exception {
+        String callId = placeCall("Duplicates");
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/calls/{id}/events", callId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"status\":\"COMPLETED\"}"))
+                    .andExpect(status().isAccepted());
+        }
+        // A ringing event delivered after the call already finished
+        callEventService.record(callId, CallStatus.IN_PROGRESS, Instant.now().minusSeconds(5));
+        callEventService.flush();
+
+        // Redelivery after the change was applied
+        callEventService.record(callId, CallStatus.FAILED, Instant.now());
+        callEventService.flush();
+
+        assertThat(statusOf(callId)).isEqualTo("COMPLETED");
+        assertThat(events.stream(CallStatusChangedEvent.class)
+                .filter(e -> e.previousStatus() == CallStatus.IN_PROGRESS))
+                .singleElement()
+                .satisfies(e -> assertThat(e.newStatus()).isEqualTo(CallStatus.COMPLETED));
+    }
+
+    @Test
+    void testLatestTerminalEventWinsWhenCoalesced() {
+        String callId = placeCall("Out of order");
+        Instant now = Instant.now();
+
+        callEventService.record(callId, CallStatus.FAILED, now);
+        callEventService.record(callId, CallStatus.COMPLETED, now.minusSeconds(1));
+        callEventService.flush();
+
+        assertThat(statusOf(callId)).isEqualTo("FAILED");
+    }
+
+    @Test
+    void testEventForUnknownCallIsRetriedUntilCallIdIsStored() {
+        String callId = UUID.randomUUID().toString();
+        callEventService.record(callId, CallStatus.COMPLETED, Instant.now());
+        callEventService.flush();
+
+        // The callback beat the write-back of the call id
+        Long phoneNumberId = placeCall("Early callback", null);
+        storeCallId(callId, phoneNumberId);
+        callEventService.flush();
+
+        assertThat(statusOf(callId)).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void testPendingIsRejected() throws Exception {
+        mockMvc.perform(post("/calls/{id}/events", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PENDING\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String placeCall(String name) {
+        String callId = UUID.randomUUID().toString();
+        placeCall(name, callId);
+        return callId;
+    }
+
+    private Long placeCall(String name, String callId) {
+        CampaignRequest request = new CampaignRequest();
+        request.setName(name);
+        request.setPhoneNumbers(List.of("5550001000"));
+        CampaignResponse campaign = campaignService.createCampaign(request);
+        Long phoneNumberId = jdbcTemplate.queryForObject(
+                "SELECT id FROM phone_numbers WHERE campaign_id = ?", Long.class, campaign.getId());
+        jdbcTemplate.update("UPDATE phone_numbers SET status = 'IN_PROGRESS', retries_attempted = 1 WHERE id = ?",
+                phoneNumberId);
+        if (callId != null) {
+            storeCallId(callId, phoneNumberId);
+        }
+        return phoneNumberId;
+    }
+
+    private void storeCallId(String callId, Long phoneNumberId) {
+        jdbcTemplate.update("INSERT INTO in_flight_calls (external_call_id, campaign_id, phone_number_id, attempt) " +
+                "SELECT ?, campaign_id, id, retries_attempted FROM phone_numbers WHERE id = ?", callId, phoneNumberId);
+        phoneNumberIds.put(callId, phoneNumberId);
+    }
+
+    private String statusOf(String callId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT status FROM phone_numbers WHERE id = ?", String.class, phoneNumberIds.get(callId));
+    }
+}
@@ -0,0 +1,164 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class CallRateLimiterTest {
+
+    private MeterRegistry meterRegistry;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private CallRateLimiter limiter;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        limiter = new CallRateLimiter(meterRegistry, jdbcTemplate);
+        ReflectionTestUtils.setField(limiter, "burst", 1);
+        ReflectionTestUtils.setField(limiter, "channelRetryMs", 50L);
+    }
+
+    @Test
+    void testGlobalChannelsAreHeldUntilCallEnds() {
+        ReflectionTestUtils.setField(limiter, "globalChannels", 2);
+        limiter.init();
+
+        assertThat(limiter.tryAcquire(call(1L, 1L, null))).isZero();
+        assertThat(limiter.tryAcquire(call(2L, 2L, null))).isZero();
+        assertThat(limiter.tryAcquire(call(3L, 1L, null))).isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+
+        limiter.onCallStatusChanged(new CallStatusChangedEvent(1L, 1L, CallStatus.IN_PROGRESS, CallStatus.COMPLETED));
+
+        assertThat(limiter.tryAcquire(call(3L, 1L, null))).isZero();
+        assertThat(limiter.channelsInUse()).isEqualTo(2);
+        assertThat(meterRegistry.get("call.rate_limiter.denied").tag("scope", "global").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("call.rate_limiter.channels.saturation").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testDeferredCallIsDeniedOnce() {
+        ReflectionTestUtils.setField(limiter, "globalChannels", 1);
+        limiter.init();
+        assertThat(limiter.tryAcquire(call(1L, 1L, null))).isZero();
+
+        assertThat(limiter.tryAcquire(call(2L, 1L, null))).isPositive();
+        assertThat(limiter.tryAcquire(call(2L, 1L, null), true)).isPositive();
+        assertThat(limiter.tryAcquire(call(2L, 1L, null), true)).isPositive();
+
+        assertThat(meterRegistry.get("call.rate_limiter.denied").tag("scope", "global").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testIdleCampaignAndCallerIdStateIsDropped() {
+        ReflectionTestUtils.setField(limiter, "perCampaignCps", 10.0);
+        ReflectionTestUtils.setField(limiter, "perCallerIdCps", 10.0);
+        ReflectionTestUtils.setField(limiter, "perCallerIdChannels", 1);
+        limiter.init();
+        assertThat(limiter.tryAcquire(call(1L, 1L, "+15550001"))).isZero();
+        assertThat(limiter.tryAcquire(call(2L, 2L, "+15550002"))).isZero();
+
+        limiter.onCampaignStatusChanged(new CampaignStatusChangedEvent(1L, CampaignStatus.RUNNING, CampaignStatus.PAUSED));
+        limiter.onCampaignStatusChanged(new CampaignStatusChangedEvent(2L, CampaignStatus.RUNNING, CampaignStatus.COMPLETED));
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(limiter, "campaignBuckets")).isEmpty();
+
+        // +15550001 still holds a channel
+        limiter.onCallStatusChanged(new CallStatusChangedEvent(2L, 2L, CallStatus.IN_PROGRESS, CallStatus.COMPLETED));
+        limiter.evictIdleCallerIds();
+
+        Map<?, ?> callerIdChannels = (Map<?, ?>) ReflectionTestUtils.getField(limiter, "callerIdChannelsInUse");
+        assertThat(callerIdChannels.containsKey("+15550001")).isTrue();
+        assertThat(callerIdChannels.containsKey("+15550002")).isFalse();
+        assertThat(meterRegistry.find("call.rate_limiter.caller_id.channels.in_use").tag("caller_id", "+15550002").gauge())
+                .isNull();
+        assertThat(meterRegistry.get("call.rate_limiter.caller_id.channels.in_use").tag("caller_id", "+15550001").gauge().value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void testChannelsOfCallsEndedElsewhereAreReconciled() {
+        ReflectionTestUtils.setField(limiter, "globalChannels", 2);
+        ReflectionTestUtils.setField(limiter, "perCallerIdChannels", 1);
+        limiter.init();
+        assertThat(limiter.tryAcquire(call(1L, 1L, "+15550001"))).isZero();
+        assertThat(limiter.tryAcquire(call(2L, 1L, "+15550002"))).isZero();
+        assertThat(limiter.tryAcquire(call(3L, 1L, "+15550001"))).isPositive();
+
+        // Number 1's call was finished by another instance
+        doReturn(List.of(2L)).when(jdbcTemplate).queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class));
+        limiter.reconcileChannels();
+
+        assertThat(limiter.channelsInUse()).isEqualTo(1);
+        assertThat(limiter.tryAcquire(call(3L, 1L, "+15550001"))).isZero();
+        assertThat(meterRegistry.get("call.rate_limiter.channels.reconciled").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCampaignRateIsPerCampaign() {
+        ReflectionTestUtils.setField(limiter, "perCampaignCps", 1.0);
+        limiter.init();
+
+        assertThat(limiter.tryAcquire(call(1L, 1L, null))).isZero();
+        assertThat(limiter.tryAcquire(call(2L, 2L, null))).isZero();
+
+        long wait = limiter.tryAcquire(call(3L, 1L, null));
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(meterRegistry.get("call.rate_limiter.denied").tag("scope", "campaign").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testRefusedCallGivesBackWhatOtherLimitsGranted() {
+        ReflectionTestUtils.setField(limiter, "perCampaignCps", 1.0);
+        ReflectionTestUtils.setField(limiter, "perCallerIdCps", 1.0);
+        ReflectionTestUtils.setField(limiter, "globalChannels", 10);
+        limiter.init();
+
+        assertThat(limiter.tryAcquire(call(1L, 1L, "+15550001"))).isZero();
+        // Same caller ID, different campaign: refused by the caller ID bucket
+        assertThat(limiter.tryAcquire(call(2L, 2L, "+15550001"))).isPositive();
+
+        // Campaign 2's token and the channel were returned
+        assertThat(limiter.tryAcquire(call(3L, 2L, "+15550002"))).isZero();
+        assertThat(limiter.channelsInUse()).isEqualTo(2);
+    }
+
+    @Test
+    void testBucketAllowsBurstThenRefills() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertThat(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100))).isZero();
+
+        // Refilled to the whole burst once every token taken is paid back
+        assertThat(bucket.isFull(now + TimeUnit.MILLISECONDS.toNanos(399))).isFalse();
+        assertThat(bucket.isFull(now + TimeUnit.MILLISECONDS.toNanos(400))).isTrue();
+    }
+
+    private ReservedCall call(Long phoneNumberId, Long campaignId, String callerId) {
+        return new ReservedCall(phoneNumberId, campaignId, "555000" + phoneNumberId, callerId, null, 1, null);
+    }
+}
@@ -0,0 +1,123 @@
+package com.nurix.voicecampaign.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nurix.voicecampaign.dto.CallRecordPage;
+import com.nurix.voicecampaign.dto.CallRecordResponse;
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.ExportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CallRecordServiceTest {
+
+    @Autowired
+    private CallRecordService callRecordService;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // The campaign is never started
+    @MockBean
+    private CallService callService;
+
+    private Long campaignId;
+
+    @BeforeEach
+    void setup() {
+        CampaignRequest request = new CampaignRequest();
+        request.setName("Call records");
+        request.setPhoneNumbers(IntStream.range(0, 25).mapToObj(i -> "55500030" + String.format("%02d", i)).collect(Collectors.toList()));
+        campaignId = campaignService.createCampaign(request).getId();
+        // Every fifth number failed for good
+        jdbcTemplate.update("UPDATE phone_numbers SET status = 'FAILED', failure_reason = 'INVALID_NUMBER', next_attempt_at = NULL " +
+                "WHERE campaign_id = ? AND MOD(id, 5) = 0", campaignId);
+    }
+
+    @Test
+    void testKeysetPagination() {
+        List<CallRecordResponse> calls = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        do {
+            CallRecordPage page = callRecordService.listCalls(campaignId, null, cursor, 10);
+            calls.addAll(page.getCalls());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(calls).hasSize(25);
+        assertThat(calls).extracting(CallRecordResponse::getId).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void testStatusFilter() {
+        CallRecordPage page = callRecordService.listCalls(campaignId, Set.of(CallStatus.FAILED), null, 100);
+
+        assertThat(page.getCalls()).hasSize(5).allSatisfy(call -> {
+            assertThat(call.getStatus()).isEqualTo(CallStatus.FAILED);
+            assertThat(call.getId() % 5).isZero();
+        });
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void testUnknownCampaign() {
+        assertThatThrownBy(() -> callRecordService.listCalls(-1L, null, null, 10))
+                .hasMessage("Campaign not found");
+    }
+
+    @Test
+    void testCsvExport() {
+        String[] lines = export(null, ExportFormat.CSV).split("\n");
+
+        assertThat(lines).hasSize(26);
+        assertThat(lines[0]).startsWith("id,number,status");
+        assertThat(lines[1].split(",", -1)).hasSize(10);
+    }
+
+    @Test
+    void testNdjsonExport() throws Exception {
+        String[] lines = export(Set.of(CallStatus.FAILED), ExportFormat.NDJSON).split("\n");
+
+        assertThat(lines).hasSize(5);
+        for (String line : lines) {
+            JsonNode call = objectMapper.readTree(line);
+            assertThat(call.get("status").asText()).isEqualTo("FAILED");
+            assertThat(call.get("failureReason").asText()).isEqualTo("INVALID_NUMBER");
+            assertThat(call.get("createdAt").isNull()).isFalse();
+        }
+    }
+
+    private String export(Set<CallStatus> statuses, ExportFormat format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        callRecordService.export(campaignId, statuses, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
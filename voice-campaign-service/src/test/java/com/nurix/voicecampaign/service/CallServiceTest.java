@@ -0,0 +1,106 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.model.CallStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class CallServiceTest {
+
+    @Test
+    void testCallEndsAfterRingAndTalkDuration() {
+        CallService callService = simulator("fixed:100", "fixed:100", "COMPLETED:1", 16);
+
+        long placedAt = System.currentTimeMillis();
+        String callId = callService.triggerCall("+14155550100");
+        assertThat(callService.getCallStatus(callId)).isEqualTo(CallStatus.IN_PROGRESS);
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> callService.getCallStatus(callId) == CallStatus.COMPLETED);
+        assertThat(System.currentTimeMillis() - placedAt).isGreaterThanOrEqualTo(200);
+    }
+
+    @Test
+    void testFailuresFollowTheOutcomeWeights() {
+        CallService callService = simulator("fixed:0", "fixed:0", "COMPLETED:0,BUSY:1", 16);
+
+        assertThat(callService.getCallStatus(callService.triggerCall("+14155550100"))).isEqualTo(CallStatus.FAILED);
+        assertThat(callService.getCallStatus("unknown")).isNull();
+    }
+
+    @Test
+    void testRefusesCallsWhileFullAndReusesSlotsOfFinishedCalls() {
+        CallService callService = simulator("fixed:100", "fixed:0", "COMPLETED:1", 4);
+        List<String> callIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            callIds.add(callService.triggerCall("+1415555010" + i));
+        }
+
+        assertThatThrownBy(() -> callService.triggerCall("+14155550104")).isInstanceOf(IllegalStateException.class);
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> callService.getCallStatus(callIds.get(0)) == CallStatus.COMPLETED);
+        String next = callService.triggerCall("+14155550104");
+        assertThat(callService.getCallStatus(next)).isEqualTo(CallStatus.IN_PROGRESS);
+        // Its slot was taken over
+        assertThat(callService.getCallStatus(callIds.get(0))).isNull();
+        assertThat(callService.getCallStatus(callIds.get(1))).isEqualTo(CallStatus.COMPLETED);
+    }
+
+    @Test
+    void testTracksHundredThousandConcurrentCalls() {
+        CallService callService = simulator("fixed:600000", "fixed:0", "COMPLETED:1", 100_000);
+        List<String> callIds = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            String callId = callService.triggerCall("+1415" + String.format("%07d", i));
+            if (i % 1000 == 0) {
+                callIds.add(callId);
+            }
+        }
+
+        assertThat(callIds).allMatch(callId -> callService.getCallStatus(callId) == CallStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void testDurationDistributions() {
+        Random random = new Random(42);
+        assertThat(DurationDistribution.parse("fixed:250").sample(random)).isEqualTo(250);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(DurationDistribution.parse("uniform:50-150").sample(random)).isBetween(50L, 150L);
+            assertThat(DurationDistribution.parse("normal:100,500").sample(random)).isNotNegative();
+            assertThat(DurationDistribution.parse("exponential:100").sample(random)).isNotNegative();
+        }
+
+        long[] samples = new long[10_001];
+        DurationDistribution lognormal = DurationDistribution.parse("lognormal:1000,0.5");
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = lognormal.sample(random);
+        }
+        Arrays.sort(samples);
+        assertThat(samples[samples.length / 2]).isBetween(950L, 1050L);
+
+        assertThatThrownBy(() -> DurationDistribution.parse("uniform:150-50")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DurationDistribution.parse("gamma:1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DurationDistribution.parse("100")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private CallService simulator(String ringDuration, String talkDuration, String outcomes, int maxTrackedCalls) {
+        CallService callService = new CallService();
+        ReflectionTestUtils.setField(callService, "triggerLatency", "fixed:0");
+        ReflectionTestUtils.setField(callService, "ringDuration", ringDuration);
+        ReflectionTestUtils.setField(callService, "talkDuration", talkDuration);
+        ReflectionTestUtils.setField(callService, "rejectDuration", "fixed:0");
+        ReflectionTestUtils.setField(callService, "outcomes", outcomes);
+        ReflectionTestUtils.setField(callService, "maxTrackedCalls", maxTrackedCalls);
+        ReflectionTestUtils.setField(callService, "callbackUrl", "");
+        callService.start();
+        return callService;
+    }
+}
@@ -0,0 +1,70 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.model.CallStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+
+// One call per 20 s per campaign and a claim lease of 1 s: the second call is deferred past its lease
+@SpringBootTest(properties = {
+        "campaign.rate-limit.per-campaign-cps=0.05",
+        "campaign.cluster.claim-lease-ms=1000",
+        "campaign.reaper.interval-ms=600000"
+})
+@ActiveProfiles("test")
+class CallTriggerPipelineTest {
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private StuckCallReaper stuckCallReaper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private CallService callService;
+
+    @Test
+    void testDeferredCallKeepsItsClaim() throws Exception {
+        doAnswer(inv -> UUID.randomUUID().toString()).when(callService).triggerCall(anyString());
+        doReturn(CallStatus.IN_PROGRESS).when(callService).getCallStatus(anyString());
+        CampaignRequest request = new CampaignRequest();
+        request.setName("Deferred");
+        request.setPhoneNumbers(List.of("5550006001", "5550006002"));
+        Long campaignId = campaignService.createCampaign(request).getId();
+
+        campaignService.startCampaign(campaignId);
+        await().atMost(Duration.ofSeconds(5)).until(() -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM in_flight_calls WHERE campaign_id = ?",
+                Long.class, campaignId) == 1);
+        // Past the original claim lease
+        Thread.sleep(1500);
+        stuckCallReaper.reap();
+
+        Map<String, Object> deferred = jdbcTemplate.queryForMap("SELECT status, failure_reason, retries_attempted, lease_expires_at " +
+                "FROM phone_numbers p WHERE campaign_id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM in_flight_calls f WHERE f.phone_number_id = p.id)", campaignId);
+        assertThat(deferred).containsEntry("STATUS", "IN_PROGRESS").containsEntry("RETRIES_ATTEMPTED", 1);
+        assertThat(deferred.get("FAILURE_REASON")).isNull();
+        assertThat(((Timestamp) deferred.get("LEASE_EXPIRES_AT")).toLocalDateTime()).isAfter(LocalDateTime.now());
+    }
+}
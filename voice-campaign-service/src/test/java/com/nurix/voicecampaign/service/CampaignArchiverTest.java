@@ -0,0 +1,170 @@
+package com.nurix.voicecampaign.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nurix.voicecampaign.dto.CallRecordPage;
+import com.nurix.voicecampaign.dto.CallRecordResponse;
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.dto.CampaignResponse;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import com.nurix.voicecampaign.model.ExportFormat;
+import com.nurix.voicecampaign.model.UploadFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "campaign.archive.chunk-size=4")
+@ActiveProfiles("test")
+class CampaignArchiverTest {
+
+    @Autowired
+    private CampaignArchiver campaignArchiver;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private CallRecordService callRecordService;
+
+    @Autowired
+    private PhoneNumberIngestService phoneNumberIngestService;
+
+    @Autowired
+    private CampaignStatsCache campaignStatsCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // The campaigns are never started
+    @MockBean
+    private CallService callService;
+
+    private Long campaignId;
+
+    @BeforeEach
+    void setup() {
+        CampaignRequest request = new CampaignRequest();
+        request.setName("Archived");
+        request.setPhoneNumbers(IntStream.range(0, 10).mapToObj(i -> "55500040" + String.format("%02d", i)).collect(Collectors.toList()));
+        campaignId = campaignService.createCampaign(request).getId();
+        jdbcTemplate.update("UPDATE phone_numbers SET status = 'COMPLETED', next_attempt_at = NULL, retries_attempted = 1 " +
+                "WHERE campaign_id = ?", campaignId);
+        jdbcTemplate.update("INSERT INTO call_attempts (campaign_id, phone_number_id, attempt, external_call_id, status, ended_at) " +
+                "SELECT campaign_id, id, 1, 'call-' || id, 'COMPLETED', CURRENT_TIMESTAMP FROM phone_numbers WHERE campaign_id = ?",
+                campaignId);
+        jdbcTemplate.update("UPDATE phone_numbers SET status = 'FAILED', failure_reason = 'BUSY' " +
+                "WHERE campaign_id = ? AND MOD(id, 3) = 0", campaignId);
+        jdbcTemplate.update("UPDATE campaigns SET status = 'COMPLETED' WHERE id = ?", campaignId);
+        // Counted when the campaign was created
+        campaignStatsCache.evict(campaignId);
+    }
+
+    @Test
+    void testMovesNumbersAndKeepsStatsAndExport() throws Exception {
+        String csvBefore = export(null, ExportFormat.CSV);
+        String failedBefore = export(Set.of(CallStatus.FAILED), ExportFormat.NDJSON);
+        CampaignResponse before = campaignService.getCampaign(campaignId);
+
+        assertThat(campaignArchiver.archive(campaignId)).isEqualTo(10);
+
+        assertThat(count("SELECT COUNT(*) FROM phone_numbers WHERE campaign_id = ?")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM phone_number_archive_chunks WHERE campaign_id = ?")).isEqualTo(3);
+
+        CampaignResponse after = campaignService.getCampaign(campaignId);
+        assertThat(after.getArchivedAt()).isNotNull();
+        assertThat(after.getTotalCalls()).isEqualTo(10);
+        assertThat(after.getCompletedCalls()).isEqualTo(before.getCompletedCalls());
+        assertThat(after.getFailedCalls()).isEqualTo(before.getFailedCalls()).isPositive();
+
+        assertThat(export(null, ExportFormat.CSV)).isEqualTo(csvBefore);
+        assertThat(export(Set.of(CallStatus.FAILED), ExportFormat.NDJSON)).isEqualTo(failedBefore);
+        for (String line : failedBefore.split("\n")) {
+            JsonNode call = objectMapper.readTree(line);
+            assertThat(call.get("failureReason").asText()).isEqualTo("BUSY");
+            assertThat(call.get("nextAttemptAt").isNull()).isTrue();
+        }
+
+        // Nothing left to do on a second run
+        assertThat(campaignArchiver.archive(campaignId)).isZero();
+    }
+
+    @Test
+    void testListingPagesThroughArchivedNumbers() {
+        List<CallRecordResponse> allBefore = listAll(null);
+        List<CallRecordResponse> failedBefore = listAll(Set.of(CallStatus.FAILED));
+        assertThat(allBefore).allSatisfy(call -> assertThat(call.getExternalCallId()).isEqualTo("call-" + call.getId()));
+
+        campaignArchiver.archive(campaignId);
+
+        assertThat(listAll(null)).hasSize(10).isEqualTo(allBefore);
+        assertThat(listAll(Set.of(CallStatus.FAILED))).isNotEmpty().isEqualTo(failedBefore);
+    }
+
+    @Test
+    void testArchivedCampaignTakesNoMoreWork() {
+        campaignArchiver.archive(campaignId);
+
+        assertThat(campaignService.startCampaign(campaignId).getStatus()).isEqualTo(CampaignStatus.COMPLETED);
+        assertThatThrownBy(() -> phoneNumberIngestService.ingest(campaignId, null, UploadFormat.CSV,
+                new ByteArrayInputStream("5550004999\n".getBytes(StandardCharsets.UTF_8))))
+                .hasMessage("Campaign is archived");
+    }
+
+    @Test
+    void testOnlyCompletedCampaignsAreArchived() {
+        jdbcTemplate.update("UPDATE campaigns SET status = 'PAUSED' WHERE id = ?", campaignId);
+
+        assertThat(campaignArchiver.archive(campaignId)).isEqualTo(-1);
+        assertThat(count("SELECT COUNT(*) FROM phone_numbers WHERE campaign_id = ?")).isEqualTo(10);
+    }
+
+    @Test
+    void testCsvLinesRoundTrip() {
+        assertThat(CallRecordService.parseCsvLine("1,\"+1 (415), \"\"x\"\"\",FAILED,,"))
+                .containsExactly("1", "+1 (415), \"x\"", "FAILED", "", "");
+        assertThat(Arrays.asList(CallRecordService.parseCsvLine(""))).containsExactly("");
+    }
+
+    // Pages of 3 cross the chunks of 4
+    private List<CallRecordResponse> listAll(Set<CallStatus> statuses) {
+        List<CallRecordResponse> calls = new ArrayList<>();
+        Long cursor = null;
+        do {
+            CallRecordPage page = callRecordService.listCalls(campaignId, statuses, cursor, 3);
+            calls.addAll(page.getCalls());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return calls;
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class, campaignId);
+    }
+
+    private String export(Set<CallStatus> statuses, ExportFormat format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        callRecordService.export(campaignId, statuses, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,160 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.dto.CampaignResponse;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "campaign.dispatch.max-in-flight-triggers=4",
+        "campaign.dispatch.quantum=20"
+})
+@AutoConfigureObservability
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CampaignDispatcherTest {
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private CampaignDispatcher campaignDispatcher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CallService callService;
+
+    private final AtomicInteger bigCampaignCalls = new AtomicInteger();
+    private final AtomicInteger smallCampaignCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        // 4 requests in flight at 5 ms each: a shared capacity of about 800 calls/s.
+        // Stubbed with doAnswer/doReturn since campaigns of earlier tests may still be calling the mock.
+        doAnswer(inv -> {
+            Thread.sleep(5);
+            String number = inv.getArgument(0);
+            // Numbers reach the provider in E.164
+            (number.startsWith("+1111") ? bigCampaignCalls : smallCampaignCalls).incrementAndGet();
+            return UUID.randomUUID().toString();
+        }).when(callService).triggerCall(anyString());
+        doReturn(CallStatus.IN_PROGRESS).when(callService).getCallStatus(anyString());
+    }
+
+    @Test
+    void testSmallCampaignIsNotStarvedByLargeOne() {
+        CampaignResponse big = createCampaign("Big", "111", 2000);
+        CampaignResponse small = createCampaign("Small", "222", 20);
+
+        campaignService.startCampaign(big.getId());
+        await().atMost(Duration.ofSeconds(5)).until(() -> bigCampaignCalls.get() > 0);
+        campaignService.startCampaign(small.getId());
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> smallCampaignCalls.get() == 20);
+        // The small campaign finished while the big one still had most of its numbers to go
+        assertThat(bigCampaignCalls.get()).isLessThan(500);
+    }
+
+    @Test
+    void testTickLatencyIsRecordedPerCampaign() {
+        CampaignResponse campaign = createCampaign("Timed", "333", 5);
+        campaignService.startCampaign(campaign.getId());
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            Timer timer = meterRegistry.find("campaign.dispatch.tick")
+                    .tag("campaign", campaign.getId().toString())
+                    .timer();
+            assertThat(timer).isNotNull();
+            assertThat(timer.count()).isPositive();
+        });
+    }
+
+    @Test
+    void testCompletedCampaignLeavesNoDispatchStateOrMeters() {
+        CampaignResponse campaign = createCampaign("Finished", "555", 5);
+        campaignService.startCampaign(campaign.getId());
+        String campaignTag = campaign.getId().toString();
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+                meterRegistry.find("campaign.dispatch.tick").tag("campaign", campaignTag).timer() != null
+                        && meterRegistry.find("campaign.dispatch.lag").tag("campaign", campaignTag).timer() != null);
+
+        campaignDispatcher.onCampaignStatusChanged(
+                new CampaignStatusChangedEvent(campaign.getId(), CampaignStatus.RUNNING, CampaignStatus.COMPLETED));
+
+        Map<?, ?> dispatchStates = (Map<?, ?>) ReflectionTestUtils.getField(campaignDispatcher, "dispatchStates");
+        assertThat(dispatchStates.containsKey(campaign.getId())).isFalse();
+        for (String name : List.of("campaign.dispatch.tick", "campaign.dispatch.slots.available", "campaign.dispatch.slots.used",
+                "campaign.dispatch.lag")) {
+            assertThat(meterRegistry.find(name).tag("campaign", campaignTag).meters()).as(name).isEmpty();
+        }
+    }
+
+    @Test
+    void testDispatchMetricsAreScrapedByPrometheus() throws Exception {
+        CampaignResponse campaign = createCampaign("Scraped", "444", 5);
+        // Other campaigns of this context may still be placing calls
+        double triggeredBefore = meterRegistry.get("call.trigger.latency").tag("outcome", "success").timer().count();
+        campaignService.startCampaign(campaign.getId());
+        await().atMost(Duration.ofSeconds(5)).until(() -> smallCampaignCalls.get() == 5);
+
+        String campaignTag = campaign.getId().toString();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(meterRegistry.get("call.trigger.latency").tag("outcome", "success").timer().count() - triggeredBefore).isGreaterThanOrEqualTo(5));
+        assertThat(meterRegistry.get("campaign.dispatch.slots.available").tag("campaign", campaignTag).counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("campaign.dispatch.slots.used").tag("campaign", campaignTag).counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("campaign.dispatch.lag").tag("campaign", campaignTag).timer().count()).isEqualTo(5);
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("campaign_dispatch_tick_seconds_count{campaign=\"" + campaignTag + "\"")))
+                .andExpect(content().string(containsString("call_trigger_latency_seconds_bucket")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds")));
+    }
+
+    private CampaignResponse createCampaign(String name, String prefix, int numbers) {
+        CampaignRequest request = new CampaignRequest();
+        request.setName(name);
+        request.setPhoneNumbers(IntStream.range(0, numbers)
+                .mapToObj(i -> prefix + String.format("%07d", i))
+                .collect(Collectors.toList()));
+        request.setConcurrencyLimit(numbers);
+        request.setRetryCount(0);
+        return campaignService.createCampaign(request);
+    }
+}
@@ -0,0 +1,105 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.dto.CampaignResponse;
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+// Pushes are driven by the test; the interval keeps the push thread out of the way
+@SpringBootTest(properties = "campaign.progress.push-interval-ms=600000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CampaignProgressBroadcasterTest {
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private CampaignProgressBroadcaster broadcaster;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CallService callService;
+
+    @Test
+    void testStreamStartsWithSnapshotAndCoalescesChanges() throws Exception {
+        CampaignResponse campaign = createCampaign("Streamed", "+1415555");
+        Long id = campaign.getId();
+
+        MvcResult stream = mockMvc.perform(get("/campaigns/{id}/progress", id))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(progressEvents(stream)).hasSize(1);
+        assertThat(progressEvents(stream).get(0))
+                .contains("\"status\":\"PENDING\"", "\"pendingCalls\":3", "\"inProgressDelta\":0");
+
+        eventPublisher.publishEvent(new CampaignStatusChangedEvent(id, CampaignStatus.PENDING, CampaignStatus.RUNNING));
+        eventPublisher.publishEvent(new CallStatusChangedEvent(id, 1L, CallStatus.PENDING, CallStatus.IN_PROGRESS));
+        eventPublisher.publishEvent(new CallStatusChangedEvent(id, 2L, CallStatus.PENDING, CallStatus.IN_PROGRESS));
+        broadcaster.push();
+
+        List<String> events = progressEvents(stream);
+        assertThat(events).hasSize(2);
+        assertThat(events.get(1)).contains("\"status\":\"RUNNING\"", "\"pendingDelta\":-2", "\"inProgressDelta\":2",
+                "\"pendingCalls\":1", "\"inProgressCalls\":2");
+
+        // Nothing changed, nothing sent
+        broadcaster.push();
+        assertThat(progressEvents(stream)).hasSize(2);
+    }
+
+    @Test
+    void testMultiCampaignStreamOnlyGetsRequestedCampaigns() throws Exception {
+        Long watched = createCampaign("Watched", "+1415666").getId();
+        Long other = createCampaign("Other", "+1415777").getId();
+
+        MvcResult stream = mockMvc.perform(get("/campaigns/progress").param("ids", watched.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        eventPublisher.publishEvent(new CallStatusChangedEvent(other, 1L, CallStatus.PENDING, CallStatus.IN_PROGRESS));
+        eventPublisher.publishEvent(new CallStatusChangedEvent(watched, 2L, CallStatus.PENDING, CallStatus.IN_PROGRESS));
+        broadcaster.push();
+
+        List<String> events = progressEvents(stream);
+        assertThat(events).hasSize(2);
+        assertThat(events).allMatch(event -> event.contains("\"campaignId\":" + watched + ","));
+    }
+
+    private List<String> progressEvents(MvcResult stream) throws Exception {
+        return stream.getResponse().getContentAsString().lines()
+                .filter(line -> line.startsWith("data:"))
+                .toList();
+    }
+
+    private CampaignResponse createCampaign(String name, String prefix) {
+        CampaignRequest request = new CampaignRequest();
+        request.setName(name);
+        request.setPhoneNumbers(List.of(prefix + "0001", prefix + "0002", prefix + "0003"));
+        request.setConcurrencyLimit(3);
+        request.setRetryCount(0);
+        return campaignService.createCampaign(request);
+    }
+}
@@ -0,0 +1,68 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Background sweeps are effectively off; each test sweeps explicitly
+@SpringBootTest(properties = {"campaign.scheduler.sweep-interval-ms=600000", "campaign.registry.refresh-interval-ms=600000"})
+@ActiveProfiles("test")
+class CampaignProgressTrackerTest {
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private CampaignScheduler campaignScheduler;
+
+    @Autowired
+    private RunningCampaignRegistry runningCampaignRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Nothing is dialled
+    @MockBean
+    private CallService callService;
+
+    @Test
+    void testCampaignWithoutNumbersCompletesWhenStarted() {
+        Long campaignId = createCampaign("Empty", null);
+
+        assertThat(campaignService.startCampaign(campaignId).getStatus()).isEqualTo(CampaignStatus.RUNNING);
+
+        assertThat(campaignService.getCampaign(campaignId).getStatus()).isEqualTo(CampaignStatus.COMPLETED);
+        assertThat(runningCampaignRegistry.get(campaignId)).isNull();
+    }
+
+    @Test
+    void testSweepCompletesRunningCampaignWithNothingToDial() {
+        Long campaignId = createCampaign("All final", List.of("5550008001", "5550008002"));
+        jdbcTemplate.update("UPDATE phone_numbers SET status = 'COMPLETED', next_attempt_at = NULL WHERE campaign_id = ?", campaignId);
+        // Set running by another instance, which never saw a call finish
+        jdbcTemplate.update("UPDATE campaigns SET status = 'RUNNING', version = version + 1 WHERE id = ?", campaignId);
+        runningCampaignRegistry.refresh();
+
+        campaignScheduler.processCampaigns();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM campaigns WHERE id = ?", String.class, campaignId))
+                .isEqualTo("COMPLETED");
+        assertThat(runningCampaignRegistry.get(campaignId)).isNull();
+    }
+
+    private Long createCampaign(String name, List<String> phoneNumbers) {
+        CampaignRequest request = new CampaignRequest();
+        request.setName(name);
+        request.setPhoneNumbers(phoneNumbers);
+        return campaignService.createCampaign(request).getId();
+    }
+}
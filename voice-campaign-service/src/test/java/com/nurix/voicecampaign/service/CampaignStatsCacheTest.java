@@ -0,0 +1,108 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.CallStatusChangedEvent;
+import com.nurix.voicecampaign.event.CampaignStatusChangedEvent;
+import com.nurix.voicecampaign.model.CallStatus;
+import com.nurix.voicecampaign.model.CampaignArchive;
+import com.nurix.voicecampaign.model.CampaignStatus;
+import com.nurix.voicecampaign.repository.CampaignArchiveRepository;
+import com.nurix.voicecampaign.repository.CallStatusCount;
+import com.nurix.voicecampaign.repository.PhoneNumberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CampaignStatsCacheTest {
+
+    private PhoneNumberRepository phoneNumberRepository;
+    private CampaignArchiveRepository campaignArchiveRepository;
+    private CampaignStatsCache cache;
+
+    @BeforeEach
+    void setup() {
+        phoneNumberRepository = mock(PhoneNumberRepository.class);
+        campaignArchiveRepository = mock(CampaignArchiveRepository.class);
+        cache = new CampaignStatsCache(phoneNumberRepository, campaignArchiveRepository);
+        ReflectionTestUtils.setField(cache, "refreshIntervalMs", 60_000L);
+        when(phoneNumberRepository.countByCampaignIdGroupByStatus(1L)).thenReturn(List.of(
+                count(CallStatus.PENDING, 10),
+                count(CallStatus.IN_PROGRESS, 2)));
+    }
+
+    @Test
+    void testLoadsOnceAndAppliesTransitions() {
+        assertThat(cache.get(1L)).isEqualTo(new CampaignStats(10, 2, 0, 0));
+
+        cache.onCallStatusChanged(new CallStatusChangedEvent(1L, 100L, CallStatus.PENDING, CallStatus.IN_PROGRESS));
+        cache.onCallStatusChanged(new CallStatusChangedEvent(1L, 101L, CallStatus.IN_PROGRESS, CallStatus.COMPLETED));
+        cache.onCallStatusChanged(new CallStatusChangedEvent(1L, 102L, CallStatus.IN_PROGRESS, CallStatus.FAILED));
+
+        CampaignStats stats = cache.get(1L);
+        assertThat(stats).isEqualTo(new CampaignStats(9, 1, 1, 1));
+        assertThat(stats.total()).isEqualTo(12);
+        verify(phoneNumberRepository, times(1)).countByCampaignIdGroupByStatus(1L);
+    }
+
+    @Test
+    void testEvictReloadsFromDatabase() {
+        cache.get(1L);
+        cache.evict(1L);
+        cache.get(1L);
+
+        verify(phoneNumberRepository, times(2)).countByCampaignIdGroupByStatus(1L);
+    }
+
+    @Test
+    void testCompletedAndStaleEntriesAreDropped() {
+        cache.get(1L);
+        cache.onCampaignStatusChanged(new CampaignStatusChangedEvent(1L, CampaignStatus.RUNNING, CampaignStatus.COMPLETED));
+        cache.get(1L);
+        verify(phoneNumberRepository, times(2)).countByCampaignIdGroupByStatus(1L);
+
+        // Still fresh
+        cache.evictStale();
+        cache.get(1L);
+        verify(phoneNumberRepository, times(2)).countByCampaignIdGroupByStatus(1L);
+
+        ReflectionTestUtils.setField(cache, "refreshIntervalMs", -1L);
+        cache.evictStale();
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(cache, "entries")).isEmpty();
+    }
+
+    @Test
+    void testArchivedCampaignUsesStoredSummary() {
+        // Archival stopped halfway: some rows are left
+        when(phoneNumberRepository.countByCampaignIdGroupByStatus(2L)).thenReturn(List.of(count(CallStatus.COMPLETED, 4)));
+        when(campaignArchiveRepository.findById(2L)).thenReturn(Optional.of(CampaignArchive.builder()
+                .campaignId(2L).completedCalls(7).failedCalls(3).archivedAt(LocalDateTime.now()).build()));
+
+        assertThat(cache.get(2L)).isEqualTo(new CampaignStats(0, 0, 7, 3));
+        verify(phoneNumberRepository, never()).countByCampaignIdGroupByStatus(2L);
+    }
+
+    private CallStatusCount count(CallStatus status, long count) {
+        return new CallStatusCount() {
+            @Override
+            public CallStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+}
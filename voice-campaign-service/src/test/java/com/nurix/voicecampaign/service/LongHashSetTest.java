@@ -0,0 +1,38 @@
+package com.nurix.voicecampaign.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashSetTest {
+
+    @Test
+    void testAddAndContainsAcrossResizes() {
+        LongHashSet set = new LongHashSet(0);
+        for (long i = 1; i <= 100_000; i++) {
+            assertThat(set.add(14_155_550_000L + i)).isTrue();
+        }
+
+        assertThat(set.add(14_155_550_001L)).isFalse();
+        assertThat(set.size()).isEqualTo(100_000);
+        assertThat(set.contains(14_155_650_000L)).isTrue();
+        assertThat(set.contains(14_155_650_001L)).isFalse();
+    }
+
+    @Test
+    void testBloomFilterNeverMissesAndRarelyFlagsOthers() {
+        LongBloomFilter filter = new LongBloomFilter(10_000, 0.01);
+        for (long i = 0; i < 10_000; i++) {
+            filter.add(14_155_550_000L + i);
+        }
+
+        int falsePositives = 0;
+        for (long i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(14_155_550_000L + i)).isTrue();
+            if (filter.mightContain(19_175_550_000L + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
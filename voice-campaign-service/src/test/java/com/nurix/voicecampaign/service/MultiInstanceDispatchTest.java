@@ -0,0 +1,186 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.VoiceCampaignServiceApplication;
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.dto.CampaignResponse;
+import com.nurix.voicecampaign.model.CallStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs two application instances against one shared H2 database, the way two replicas
+ * share PostgreSQL, and checks that they never place the same call twice and respect
+ * the campaign's concurrency limit between them.
+ */
+class MultiInstanceDispatchTest {
+
+    // Calls placed per number, across both instances
+    private static final Map<String, AtomicInteger> placedCalls = new ConcurrentHashMap<>();
+
+    private final List<ConfigurableApplicationContext> instances = new ArrayList<>();
+    private String databaseUrl;
+
+    @BeforeEach
+    void setup() {
+        placedCalls.clear();
+        databaseUrl = "jdbc:h2:mem:cluster-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    }
+
+    @AfterEach
+    void shutdown() {
+        instances.forEach(ConfigurableApplicationContext::close);
+        instances.clear();
+    }
+
+    @Test
+    void testInstancesNeverPlaceTheSameCall() {
+        ConfigurableApplicationContext first = startInstance("first", false);
+        ConfigurableApplicationContext second = startInstance("second", false);
+
+        CampaignResponse campaign = createCampaign(first, "Shared", 300, 300);
+        first.getBean(CampaignService.class).startCampaign(campaign.getId());
+        // Both instances go for the same rows at the same time
+        for (int i = 0; i < 20; i++) {
+            first.getBean(CampaignDispatcher.class).requestDispatch(campaign.getId());
+            second.getBean(CampaignDispatcher.class).requestDispatch(campaign.getId());
+        }
+
+        await().atMost(Duration.ofSeconds(20))
+                .until(() -> placedCalls.size() == 300);
+        assertThat(placedCalls.values()).allMatch(count -> count.get() == 1);
+        assertThat(inProgress(first, campaign.getId())).isEqualTo(300);
+    }
+
+    @Test
+    void testConcurrencyLimitHoldsAcrossInstances() throws InterruptedException {
+        ConfigurableApplicationContext first = startInstance("first", false);
+        ConfigurableApplicationContext second = startInstance("second", false);
+
+        CampaignResponse campaign = createCampaign(first, "Limited", 100, 10);
+        first.getBean(CampaignService.class).startCampaign(campaign.getId());
+        for (int i = 0; i < 20; i++) {
+            first.getBean(CampaignDispatcher.class).requestDispatch(campaign.getId());
+            second.getBean(CampaignDispatcher.class).requestDispatch(campaign.getId());
+        }
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> placedCalls.size() == 10);
+        Thread.sleep(500);
+        assertThat(placedCalls).hasSize(10);
+        assertThat(inProgress(second, campaign.getId())).isEqualTo(10);
+    }
+
+    @Test
+    void testCampaignLeasesSplitCampaignsBetweenInstances() {
+        ConfigurableApplicationContext first = startInstance("first", true);
+        List<Long> campaignIds = IntStream.range(0, 4)
+                .mapToObj(i -> createCampaign(first, "Sharded " + i, 5, 5).getId())
+                .collect(Collectors.toList());
+        campaignIds.forEach(first.getBean(CampaignService.class)::startCampaign);
+        ConfigurableApplicationContext second = startInstance("second", true);
+
+        CampaignLeaseManager firstLeases = first.getBean(CampaignLeaseManager.class);
+        CampaignLeaseManager secondLeases = second.getBean(CampaignLeaseManager.class);
+        await().atMost(Duration.ofSeconds(20)).until(() -> {
+            long firstOwned = campaignIds.stream().filter(firstLeases::owns).count();
+            long secondOwned = campaignIds.stream().filter(secondLeases::owns).count();
+            return firstOwned == 2 && secondOwned == 2;
+        });
+        assertThat(campaignIds).noneMatch(id -> firstLeases.owns(id) && secondLeases.owns(id));
+        await().atMost(Duration.ofSeconds(20)).until(() -> placedCalls.size() == 20);
+    }
+
+    @Test
+    void testInstancesWithoutClusterModeNoticeEachOther() {
+        ConfigurableApplicationContext first = startInstance("first", false, false);
+        ConfigurableApplicationContext second = startInstance("second", false, false);
+
+        CampaignLeaseManager firstMembers = first.getBean(CampaignLeaseManager.class);
+        CampaignLeaseManager secondMembers = second.getBean(CampaignLeaseManager.class);
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> firstMembers.liveMembers() == 2 && secondMembers.liveMembers() == 2);
+
+        second.close();
+        assertThat(firstMembers.heartbeat()).isEqualTo(1);
+    }
+
+    private ConfigurableApplicationContext startInstance(String name, boolean campaignLeases) {
+        return startInstance(name, true, campaignLeases);
+    }
+
+    private ConfigurableApplicationContext startInstance(String name, boolean clustered, boolean campaignLeases) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(VoiceCampaignServiceApplication.class, StubTelephonyConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + databaseUrl,
+                        "--campaign.cluster.enabled=" + clustered,
+                        "--campaign.cluster.instance-id=" + name,
+                        "--campaign.cluster.campaign-leases=" + campaignLeases,
+                        "--campaign.cluster.campaign-lease-ms=2000",
+                        "--campaign.cluster.campaign-lease-renew-interval-ms=200",
+                        "--telephony.mock.callback-url=",
+                        "--logging.level.com.nurix.voicecampaign=WARN");
+        instances.add(context);
+        return context;
+    }
+
+    private CampaignResponse createCampaign(ConfigurableApplicationContext context, String name, int numbers, int concurrencyLimit) {
+        CampaignRequest request = new CampaignRequest();
+        request.setName(name);
+        // Placed calls are counted by number, so every campaign gets its own range
+        int areaCode = 200 + Math.floorMod(name.hashCode(), 800);
+        request.setPhoneNumbers(IntStream.range(0, numbers)
+                .mapToObj(i -> "+1" + areaCode + String.format("%07d", i))
+                .collect(Collectors.toList()));
+        request.setConcurrencyLimit(concurrencyLimit);
+        request.setRetryCount(0);
+        return context.getBean(CampaignService.class).createCampaign(request);
+    }
+
+    private long inProgress(ConfigurableApplicationContext context, Long campaignId) {
+        return context.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT COUNT(*) FROM phone_numbers WHERE campaign_id = ? AND status = 'IN_PROGRESS'", Long.class, campaignId);
+    }
+
+    @TestConfiguration
+    static class StubTelephonyConfig {
+        @Bean
+        @Primary
+        RecordingCallService recordingCallService() {
+            return new RecordingCallService();
+        }
+    }
+
+    // Calls never finish, so every placed call keeps holding its slot
+    static class RecordingCallService extends CallService {
+        @Override
+        public String triggerCall(String phoneNumber) {
+            placedCalls.computeIfAbsent(phoneNumber, number -> new AtomicInteger()).incrementAndGet();
+            return UUID.randomUUID().toString();
+        }
+
+        @Override
+        public CallStatus getCallStatus(String callId) {
+            return CallStatus.IN_PROGRESS;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.dto.CampaignResponse;
+import com.nurix.voicecampaign.dto.NumberUploadResponse;
+import com.nurix.voicecampaign.model.UploadFormat;
+import com.nurix.voicecampaign.model.UploadStatus;
+import com.nurix.voicecampaign.repository.NumberUploadRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "campaign.ingest.chunk-size=3")
+@ActiveProfiles("test")
+class PhoneNumberIngestServiceTest {
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private PhoneNumberIngestService ingestService;
+
+    @Autowired
+    private NumberUploadRepository numberUploadRepository;
+
+    @Autowired
+    private DoNotCallList doNotCallList;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testCsvUploadSkipsHeaderAndRejectsGarbage() {
+        CampaignResponse campaign = createEmptyCampaign("CSV Upload");
+        String csv = "phone_number,name\n5550000001,Alice\n\"5550000002\",Bob\n\nnot-a-number\n5550000003\n";
+
+        NumberUploadResponse upload = ingestService.ingest(campaign.getId(), null, UploadFormat.CSV, stream(csv));
+
+        assertThat(upload.getStatus()).isEqualTo(UploadStatus.COMPLETED);
+        assertThat(upload.getNumbersInserted()).isEqualTo(3);
+        assertThat(upload.getRecordsRejected()).isEqualTo(1);
+        assertThat(campaignService.getCampaign(campaign.getId()).getPendingCalls()).isEqualTo(3);
+    }
+
+    @Test
+    void testInterruptedNdjsonUploadResumesFromLastChunk() {
+        CampaignResponse campaign = createEmptyCampaign("NDJSON Upload");
+        String body = IntStream.range(0, 10)
+                .mapToObj(i -> "{\"number\":\"55510000" + i + "\"}")
+                .collect(Collectors.joining("\n"));
+
+        // Connection drops after roughly seven lines; two full chunks (6 lines) are committed
+        int cutOff = body.indexOf("55510000" + 7);
+        assertThatThrownBy(() -> ingestService.ingest(campaign.getId(), null, UploadFormat.NDJSON, failingStream(body, cutOff)))
+                .isInstanceOf(RuntimeException.class);
+
+        Long uploadId = numberUploadRepository.findAll().stream()
+                .filter(u -> u.getCampaignId().equals(campaign.getId()))
+                .findFirst().orElseThrow().getId();
+        NumberUploadResponse interrupted = ingestService.getUpload(campaign.getId(), uploadId);
+        assertThat(interrupted.getStatus()).isEqualTo(UploadStatus.FAILED);
+        assertThat(interrupted.getRecordsProcessed()).isEqualTo(6);
+
+        NumberUploadResponse resumed = ingestService.ingest(campaign.getId(), uploadId, UploadFormat.NDJSON, stream(body));
+
+        assertThat(resumed.getStatus()).isEqualTo(UploadStatus.COMPLETED);
+        assertThat(resumed.getRecordsProcessed()).isEqualTo(10);
+        assertThat(resumed.getNumbersInserted()).isEqualTo(10);
+        assertThat(campaignService.getCampaign(campaign.getId()).getTotalCalls()).isEqualTo(10);
+    }
+
+    @Test
+    void testNumbersAreNormalisedDeduplicatedAndScreened() {
+        CampaignRequest request = new CampaignRequest();
+        request.setName("Screened");
+        request.setPhoneNumbers(List.of("(555) 000-2001", "+1 555 000 2001", "5550002002"));
+        CampaignResponse campaign = campaignService.createCampaign(request);
+        doNotCallList.add(List.of("+1-555-000-2004"));
+
+        // Same numbers in other formats, one listed number and one new one
+        String csv = "15550002001\n555.000.2002\n5550002003\n555 000 2004\n5550002003\n";
+        NumberUploadResponse upload = ingestService.ingest(campaign.getId(), null, UploadFormat.CSV, stream(csv));
+
+        assertThat(upload.getNumbersInserted()).isEqualTo(1);
+        assertThat(upload.getNumbersDuplicate()).isEqualTo(3);
+        assertThat(upload.getNumbersSuppressed()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT number FROM phone_numbers WHERE campaign_id = ? ORDER BY number",
+                String.class, campaign.getId()))
+                .containsExactly("+15550002001", "+15550002002", "+15550002003");
+        assertThat(doNotCallList.contains("5550002004")).isTrue();
+        assertThat(doNotCallList.contains("5550002003")).isFalse();
+    }
+
+    @Test
+    void testCreateReportsNumbersLeftOut() {
+        doNotCallList.add(List.of("5550002104"));
+        CampaignRequest request = new CampaignRequest();
+        request.setName("Create counts");
+        request.setPhoneNumbers(List.of("5550002101", "(555) 000-2101", "not a number", "5550002104", "5550002102"));
+
+        CampaignResponse campaign = campaignService.createCampaign(request);
+
+        assertThat(campaign.getTotalCalls()).isEqualTo(2);
+        assertThat(campaign.getRecordsRejected()).isEqualTo(1);
+        assertThat(campaign.getNumbersDuplicate()).isEqualTo(1);
+        assertThat(campaign.getNumbersSuppressed()).isEqualTo(1);
+    }
+
+    private CampaignResponse createEmptyCampaign(String name) {
+        CampaignRequest request = new CampaignRequest();
+        request.setName(name);
+        return campaignService.createCampaign(request);
+    }
+
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private InputStream failingStream(String body, int failAfterBytes) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position >= failAfterBytes) {
+                    throw new IOException("Connection reset");
+                }
+                return position < bytes.length ? bytes[position++] : -1;
+            }
+        };
+    }
+}
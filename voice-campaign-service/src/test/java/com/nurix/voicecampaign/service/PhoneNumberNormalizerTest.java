@@ -0,0 +1,30 @@
+package com.nurix.voicecampaign.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhoneNumberNormalizerTest {
+
+    @Test
+    void testNationalAndInternationalFormats() {
+        assertThat(PhoneNumberNormalizer.parse("(415) 555-0100", 1)).isEqualTo(14155550100L);
+        assertThat(PhoneNumberNormalizer.parse("415.555.0100", 1)).isEqualTo(14155550100L);
+        assertThat(PhoneNumberNormalizer.parse("1 415 555 0100", 1)).isEqualTo(14155550100L);
+        assertThat(PhoneNumberNormalizer.parse("+1 415 555 0100", 1)).isEqualTo(14155550100L);
+        assertThat(PhoneNumberNormalizer.parse("0044 20 7946 0018", 1)).isEqualTo(442079460018L);
+        // National number with a trunk prefix
+        assertThat(PhoneNumberNormalizer.parse("020 7946 0018", 44)).isEqualTo(442079460018L);
+        assertThat(PhoneNumberNormalizer.format(14155550100L)).isEqualTo("+14155550100");
+    }
+
+    @Test
+    void testInvalidNumbers() {
+        assertThat(PhoneNumberNormalizer.parse("not-a-number", 1)).isEqualTo(PhoneNumberNormalizer.INVALID);
+        assertThat(PhoneNumberNormalizer.parse("555-0100 ext 12", 1)).isEqualTo(PhoneNumberNormalizer.INVALID);
+        assertThat(PhoneNumberNormalizer.parse("+1 415 +555", 1)).isEqualTo(PhoneNumberNormalizer.INVALID);
+        assertThat(PhoneNumberNormalizer.parse("12345", 1)).isEqualTo(PhoneNumberNormalizer.INVALID);
+        assertThat(PhoneNumberNormalizer.parse("+1234567890123456", 1)).isEqualTo(PhoneNumberNormalizer.INVALID);
+        assertThat(PhoneNumberNormalizer.parse(null, 1)).isEqualTo(PhoneNumberNormalizer.INVALID);
+    }
+}
@@ -0,0 +1,114 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.event.RetryDueEvent;
+import com.nurix.voicecampaign.model.Campaign;
+import com.nurix.voicecampaign.model.FailureReason;
+import com.nurix.voicecampaign.model.RetryBackoff;
+import com.nurix.voicecampaign.repository.CampaignRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetrySchedulerTest {
+
+    private CampaignRepository campaignRepository;
+    private RunningCampaignRegistry runningCampaignRegistry;
+    private ApplicationEventPublisher eventPublisher;
+    private RetryScheduler retryScheduler;
+
+    @BeforeEach
+    void setup() {
+        campaignRepository = mock(CampaignRepository.class);
+        runningCampaignRegistry = mock(RunningCampaignRegistry.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        retryScheduler = new RetryScheduler(campaignRepository, runningCampaignRegistry, eventPublisher);
+        ReflectionTestUtils.setField(retryScheduler, "defaultBackoff", RetryBackoff.EXPONENTIAL);
+        ReflectionTestUtils.setField(retryScheduler, "defaultDelayMs", 60_000L);
+        ReflectionTestUtils.setField(retryScheduler, "defaultMaxDelayMs", 3_600_000L);
+        ReflectionTestUtils.setField(retryScheduler, "delayQueueHorizonMs", 300_000L);
+        retryScheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryScheduler.stop();
+    }
+
+    @Test
+    void testExponentialBackoffWithJitter() {
+        RetryScheduler.Policy policy = new RetryScheduler.Policy(5, RetryBackoff.EXPONENTIAL, 1000, 5000);
+
+        IntStream.range(0, 100).forEach(i -> {
+            assertThat(RetryScheduler.delayMs(policy, 1, FailureReason.NO_ANSWER)).isBetween(500L, 1000L);
+            assertThat(RetryScheduler.delayMs(policy, 3, FailureReason.NO_ANSWER)).isBetween(2000L, 4000L);
+            // Capped at the maximum delay
+            assertThat(RetryScheduler.delayMs(policy, 10, FailureReason.UNKNOWN)).isBetween(2500L, 5000L);
+        });
+    }
+
+    @Test
+    void testFailureReasonHandling() {
+        RetryScheduler.Policy exponential = new RetryScheduler.Policy(5, RetryBackoff.EXPONENTIAL, 1000, 60_000);
+        RetryScheduler.Policy fixed = new RetryScheduler.Policy(5, RetryBackoff.FIXED, 1000, 60_000);
+
+        assertThat(RetryScheduler.delayMs(fixed, 4, FailureReason.NO_ANSWER)).isEqualTo(1000);
+        assertThat(RetryScheduler.delayMs(exponential, 4, FailureReason.BUSY)).isEqualTo(1000);
+        assertThat(RetryScheduler.delayMs(exponential, 4, FailureReason.CLAIM_EXPIRED)).isZero();
+    }
+
+    @Test
+    void testNoRetryWhenExhaustedOrInvalid() {
+        campaign(1L, 3, null);
+
+        assertThat(retryScheduler.nextAttemptAt(1L, 3, FailureReason.NO_ANSWER)).isNull();
+        assertThat(retryScheduler.nextAttemptAt(1L, 1, FailureReason.INVALID_NUMBER)).isNull();
+        assertThat(retryScheduler.nextAttemptAt(1L, 1, FailureReason.NO_ANSWER))
+                .isBetween(LocalDateTime.now().plusSeconds(29), LocalDateTime.now().plusSeconds(61));
+    }
+
+    @Test
+    void testRunningCampaignPolicyComesFromItsSnapshot() {
+        when(runningCampaignRegistry.get(2L)).thenReturn(RunningCampaign.of(Campaign.builder()
+                .id(2L)
+                .retryCount(1)
+                .build(), ZoneId.systemDefault()));
+
+        assertThat(retryScheduler.nextAttemptAt(2L, 1, FailureReason.NO_ANSWER)).isNull();
+        verify(campaignRepository, never()).findById(2L);
+    }
+
+    @Test
+    void testNearTermRetriesWakeUpTheCampaign() {
+        campaign(1L, 3, 50L);
+
+        retryScheduler.nextAttemptAt(1L, 1, FailureReason.BUSY);
+        retryScheduler.nextAttemptAt(1L, 1, FailureReason.BUSY);
+
+        // Both retries fall into the same wakeup
+        verify(eventPublisher, timeout(2000)).publishEvent(new RetryDueEvent(1L));
+        verify(eventPublisher, times(1)).publishEvent(new RetryDueEvent(1L));
+    }
+
+    private void campaign(Long id, int retryCount, Long retryDelayMs) {
+        when(campaignRepository.findById(id)).thenReturn(Optional.of(Campaign.builder()
+                .id(id)
+                .retryCount(retryCount)
+                .retryDelayMs(retryDelayMs)
+                .build()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.model.CallStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+
+// Background refreshing is effectively off; each test refreshes explicitly
+@SpringBootTest(properties = "campaign.registry.refresh-interval-ms=600000")
+@ActiveProfiles("test")
+class RunningCampaignRegistryTest {
+
+    @Autowired
+    private RunningCampaignRegistry runningCampaignRegistry;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Calls stay in progress, so the campaigns keep running
+    @MockBean
+    private CallService callService;
+
+    @BeforeEach
+    void setup() {
+        doAnswer(inv -> UUID.randomUUID().toString()).when(callService).triggerCall(anyString());
+        doReturn(CallStatus.IN_PROGRESS).when(callService).getCallStatus(anyString());
+    }
+
+    @Test
+    void testStartAndPauseWriteThrough() {
+        Long campaignId = createCampaign("Write-through", "America/New_York");
+        assertThat(runningCampaignRegistry.get(campaignId)).isNull();
+
+        campaignService.startCampaign(campaignId);
+
+        RunningCampaign campaign = runningCampaignRegistry.get(campaignId);
+        assertThat(campaign.zone()).isEqualTo(ZoneId.of("America/New_York"));
+        assertThat(campaign.concurrencyLimit()).isEqualTo(10);
+        assertThat(campaign.retryCount()).isEqualTo(3);
+        assertThat(campaign.version()).isEqualTo(version(campaignId));
+
+        // Nothing changed, so nothing is reloaded
+        runningCampaignRegistry.refresh();
+        assertThat(runningCampaignRegistry.get(campaignId)).isSameAs(campaign);
+
+        campaignService.pauseCampaign(campaignId);
+        assertThat(runningCampaignRegistry.get(campaignId)).isNull();
+    }
+
+    @Test
+    void testChangesByOtherInstancesArePickedUpByVersion() {
+        Long campaignId = createCampaign("Other instance", "Not/AZone");
+        campaignService.startCampaign(campaignId);
+        assertThat(runningCampaignRegistry.get(campaignId).zone()).isEqualTo(ZoneId.systemDefault());
+
+        jdbcTemplate.update("UPDATE campaigns SET concurrency_limit = 7, version = version + 1 WHERE id = ?", campaignId);
+        runningCampaignRegistry.refresh();
+        assertThat(runningCampaignRegistry.get(campaignId).concurrencyLimit()).isEqualTo(7);
+
+        jdbcTemplate.update("UPDATE campaigns SET status = 'PAUSED', version = version + 1 WHERE id = ?", campaignId);
+        runningCampaignRegistry.refresh();
+        assertThat(runningCampaignRegistry.get(campaignId)).isNull();
+
+        jdbcTemplate.update("UPDATE campaigns SET status = 'RUNNING', version = version + 1 WHERE id = ?", campaignId);
+        runningCampaignRegistry.refresh();
+        assertThat(runningCampaignRegistry.get(campaignId).version()).isEqualTo(version(campaignId));
+    }
+
+    private Long createCampaign(String name, String timezone) {
+        CampaignRequest request = new CampaignRequest();
+        request.setName(name);
+        request.setTimezone(timezone);
+        request.setPhoneNumbers(List.of("5550007000"));
+        return campaignService.createCampaign(request).getId();
+    }
+
+    private long version(Long campaignId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM campaigns WHERE id = ?", Long.class, campaignId);
+    }
+}
@@ -0,0 +1,83 @@
+package com.nurix.voicecampaign.service;
+
+import com.nurix.voicecampaign.dto.CampaignRequest;
+import com.nurix.voicecampaign.model.CallStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+// Background reaping is effectively off; each test reaps explicitly
+@SpringBootTest(properties = {"campaign.reaper.interval-ms=600000", "campaign.reaper.max-call-duration-ms=60000"})
+@ActiveProfiles("test")
+class StuckCallReaperTest {
+
+    @Autowired
+    private StuckCallReaper stuckCallReaper;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private CallService callService;
+
+    @Test
+    void testExpiredCallsAreResolvedWithTheProvider() {
+        CampaignRequest request = new CampaignRequest();
+        request.setName("Stuck calls");
+        request.setPhoneNumbers(List.of("5550002001", "5550002002", "5550002003", "5550002004", "5550002005"));
+        request.setRetryCount(3);
+        Long campaignId = campaignService.createCampaign(request).getId();
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM phone_numbers WHERE campaign_id = ? ORDER BY number", Long.class, campaignId);
+
+        LocalDateTime expired = LocalDateTime.now().minusMinutes(1);
+        inProgress(ids.get(0), null, expired);        // reserved, never placed
+        inProgress(ids.get(1), "lost", expired);      // provider doesn't know it
+        inProgress(ids.get(2), "finished", expired);  // outcome never delivered
+        inProgress(ids.get(3), "ringing", expired);   // still running at the provider
+        inProgress(ids.get(4), "fresh", LocalDateTime.now().plusMinutes(5));
+        doReturn(null).when(callService).getCallStatus("lost");
+        doReturn(CallStatus.COMPLETED).when(callService).getCallStatus("finished");
+        doReturn(CallStatus.IN_PROGRESS).when(callService).getCallStatus("ringing");
+
+        stuckCallReaper.reap();
+
+        assertThat(row(ids.get(0))).containsEntry("STATUS", "FAILED").containsEntry("FAILURE_REASON", "CLAIM_EXPIRED");
+        assertThat(row(ids.get(0)).get("NEXT_ATTEMPT_AT")).isNotNull();
+        assertThat(row(ids.get(1))).containsEntry("STATUS", "FAILED").containsEntry("FAILURE_REASON", "CALL_LOST");
+        assertThat(row(ids.get(1)).get("LEASE_EXPIRES_AT")).isNull();
+        assertThat(row(ids.get(2))).containsEntry("STATUS", "COMPLETED");
+        assertThat(row(ids.get(2)).get("NEXT_ATTEMPT_AT")).isNull();
+        assertThat(row(ids.get(3))).containsEntry("STATUS", "IN_PROGRESS");
+        assertThat(((Timestamp) row(ids.get(3)).get("LEASE_EXPIRES_AT")).toLocalDateTime()).isAfter(LocalDateTime.now());
+        assertThat(row(ids.get(4))).containsEntry("STATUS", "IN_PROGRESS");
+    }
+
+    private void inProgress(Long id, String callId, LocalDateTime leaseExpiresAt) {
+        jdbcTemplate.update("UPDATE phone_numbers SET status = 'IN_PROGRESS', retries_attempted = 1, " +
+                "next_attempt_at = NULL, lease_expires_at = ? WHERE id = ?", Timestamp.valueOf(leaseExpiresAt), id);
+        if (callId != null) {
+            jdbcTemplate.update("INSERT INTO in_flight_calls (external_call_id, campaign_id, phone_number_id, attempt) " +
+                    "SELECT ?, campaign_id, id, retries_attempted FROM phone_numbers WHERE id = ?", callId, id);
+        }
+    }
+
+    private Map<String, Object> row(Long id) {
+        return jdbcTemplate.queryForMap(
+                "SELECT status, failure_reason, next_attempt_at, lease_expires_at FROM phone_numbers WHERE id = ?", id);
+    }
+}